@@ -0,0 +1,661 @@
+package atm;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.swing.*;
+
+@SuppressWarnings({"FieldCanBeLocal", "unused"})
+public class ATMSystemMain extends JFrame implements ActionListener {
+    private static final long serialVersionUID = 1L;
+    private final AtmService service;
+    private final TerminalWorker worker = new TerminalWorker();
+    private BankAccount currentAccount;
+    private String sessionId = UUID.randomUUID().toString();
+    
+    private JPanel loginPanel;
+    private JPanel mainPanel;
+    private JTextField accountField;
+    private JPasswordField pinField;
+    private JLabel statusLabel;
+    private JLabel balanceLabel;
+    private JLabel welcomeLabel;
+    
+    private JButton loginBtn;
+    private JButton balanceBtn;
+    private JButton withdrawBtn;
+    private JButton depositBtn;
+    private JButton transferBtn;
+    private JButton statementBtn;
+    private JButton changePinBtn;
+    private JButton logoutBtn;
+    private JButton exitBtn;
+    
+    private static final int STATEMENT_ENTRIES = 10;
+    
+    private static final DateTimeFormatter FILTER_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    
+    private record StatementView(long balance, long dailyLimit, long remainingLimit,
+                                 TransactionJournal.Filter filter, TransactionJournal.Page page) {}
+    
+    public ATMSystemMain(AtmService service) {
+        this.service = service;
+        initializeGUI();
+    }
+    
+    private void initializeGUI() {
+        setTitle("Secure Bank ATM System");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(800, 600);
+        setLocationRelativeTo(null);
+        setResizable(false);
+        
+        createLoginPanel();
+        createMainPanel();
+        
+        setContentPane(loginPanel);
+        setVisible(true);
+    }
+    
+    private void createLoginPanel() {
+        loginPanel = new JPanel(new BorderLayout());
+        loginPanel.setBackground(new Color(236, 240, 241));
+        
+        JPanel headerPanel = new JPanel();
+        headerPanel.setBackground(new Color(41, 128, 185));
+        headerPanel.setPreferredSize(new Dimension(800, 100));
+        
+        JLabel titleLabel = new JLabel("SECURE BANK ATM SERVICES");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        titleLabel.setForeground(Color.WHITE);
+        titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        headerPanel.add(titleLabel);
+        
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        formPanel.setBackground(Color.WHITE);
+        
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(10, 10, 10, 10);
+        
+        JLabel loginTitle = new JLabel("USER AUTHENTICATION");
+        loginTitle.setFont(new Font("Arial", Font.BOLD, 18));
+        loginTitle.setForeground(new Color(41, 128, 185));
+        gbc.gridx = 0; gbc.gridy = 0; gbc.gridwidth = 2;
+        formPanel.add(loginTitle, gbc);
+        
+        gbc.gridwidth = 1; gbc.gridy = 1; gbc.gridx = 0;
+        formPanel.add(new JLabel("Account Number:"), gbc);
+        
+        accountField = new JTextField(15);
+        accountField.setFont(new Font("Arial", Font.PLAIN, 14));
+        gbc.gridx = 1;
+        formPanel.add(accountField, gbc);
+        
+        gbc.gridy = 2; gbc.gridx = 0;
+        formPanel.add(new JLabel("PIN:"), gbc);
+        
+        pinField = new JPasswordField(15);
+        pinField.setFont(new Font("Arial", Font.PLAIN, 14));
+        pinField.addActionListener(this);
+        gbc.gridx = 1;
+        formPanel.add(pinField, gbc);
+        
+        loginBtn = new JButton("LOGIN");
+        loginBtn.setFont(new Font("Arial", Font.BOLD, 14));
+        loginBtn.setBackground(new Color(39, 174, 96));
+        loginBtn.setForeground(Color.WHITE);
+        loginBtn.setFocusPainted(false);
+        loginBtn.addActionListener(this);
+        gbc.gridy = 3; gbc.gridx = 0; gbc.gridwidth = 2;
+        formPanel.add(loginBtn, gbc);
+        
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        statusLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        gbc.gridy = 4;
+        formPanel.add(statusLabel, gbc);
+        
+        loginPanel.add(headerPanel, BorderLayout.NORTH);
+        loginPanel.add(formPanel, BorderLayout.CENTER);
+    }
+    
+    private void createMainPanel() {
+        mainPanel = new JPanel(new BorderLayout());
+        mainPanel.setBackground(new Color(236, 240, 241));
+        
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(new Color(41, 128, 185));
+        headerPanel.setPreferredSize(new Dimension(800, 80));
+        
+        welcomeLabel = new JLabel();
+        welcomeLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        welcomeLabel.setForeground(Color.WHITE);
+        welcomeLabel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        
+        balanceLabel = new JLabel();
+        balanceLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        balanceLabel.setForeground(Color.WHITE);
+        balanceLabel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        
+        headerPanel.add(welcomeLabel, BorderLayout.WEST);
+        headerPanel.add(balanceLabel, BorderLayout.EAST);
+        
+        JPanel buttonPanel = new JPanel(new GridLayout(3, 3, 20, 20));
+        buttonPanel.setBackground(Color.WHITE);
+        buttonPanel.setBorder(BorderFactory.createEmptyBorder(50, 50, 50, 50));
+        
+        balanceBtn = createStyledButton("CHECK BALANCE");
+        withdrawBtn = createStyledButton("WITHDRAW MONEY");
+        depositBtn = createStyledButton("DEPOSIT MONEY");
+        transferBtn = createStyledButton("TRANSFER FUNDS");
+        statementBtn = createStyledButton("MINI STATEMENT");
+        changePinBtn = createStyledButton("CHANGE PIN");
+        logoutBtn = createStyledButton("LOGOUT");
+        exitBtn = createStyledButton("EXIT");
+        
+        balanceBtn.addActionListener(this);
+        withdrawBtn.addActionListener(this);
+        depositBtn.addActionListener(this);
+        transferBtn.addActionListener(this);
+        statementBtn.addActionListener(this);
+        changePinBtn.addActionListener(this);
+        logoutBtn.addActionListener(this);
+        exitBtn.addActionListener(this);
+        
+        buttonPanel.add(balanceBtn);
+        buttonPanel.add(withdrawBtn);
+        buttonPanel.add(depositBtn);
+        buttonPanel.add(statementBtn);
+        buttonPanel.add(changePinBtn);
+        buttonPanel.add(transferBtn);
+        buttonPanel.add(logoutBtn);
+        buttonPanel.add(exitBtn);
+        buttonPanel.add(new JLabel());
+        
+        mainPanel.add(headerPanel, BorderLayout.NORTH);
+        mainPanel.add(buttonPanel, BorderLayout.CENTER);
+    }
+    
+    private JButton createStyledButton(String text) {
+        JButton button = new JButton(text);
+        button.setFont(new Font("Arial", Font.BOLD, 14));
+        button.setBackground(new Color(52, 152, 219));
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setBorder(BorderFactory.createRaisedBevelBorder());
+        button.setPreferredSize(new Dimension(150, 50));
+        return button;
+    }
+    
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        Object source = e.getSource();
+        
+        if (source == loginBtn || source == pinField) {
+            handleLogin();
+        } else if (source == balanceBtn) {
+            showBalance();
+        } else if (source == withdrawBtn) {
+            withdrawMoney();
+        } else if (source == depositBtn) {
+            depositMoney();
+        } else if (source == transferBtn) {
+            transferFunds();
+        } else if (source == statementBtn) {
+            showStatement(TransactionJournal.Filter.ALL, TransactionJournal.NEWEST);
+        } else if (source == changePinBtn) {
+            changePin();
+        } else if (source == logoutBtn) {
+            logout();
+        } else if (source == exitBtn) {
+            exitApp();
+        }
+    }
+    
+    private void handleLogin() {
+        if (!loginBtn.isEnabled()) {
+            return;
+        }
+        String accountNum = accountField.getText().trim();
+        String pin = new String(pinField.getPassword());
+        
+        if (accountNum.isEmpty() || pin.isEmpty()) {
+            showMessage("Please enter both account number and PIN", Color.RED);
+            return;
+        }
+        
+        loginBtn.setEnabled(false);
+        showMessage("Verifying PIN...", Color.BLUE);
+        service.authenticate(sessionId, accountNum, pin)
+            .whenComplete((login, error) -> SwingUtilities.invokeLater(() -> completeLogin(login, error)));
+    }
+    
+    private void completeLogin(AtmService.Login login, Throwable error) {
+        loginBtn.setEnabled(true);
+        if (error != null) {
+            showMessage("Login failed, please try again", Color.RED);
+            pinField.setText("");
+        } else if (login.ok()) {
+            currentAccount = login.account();
+            showMessage(login.message(), Color.GREEN);
+            switchToMainScreen();
+        } else {
+            showMessage(login.message(), Color.RED);
+            pinField.setText("");
+        }
+    }
+    
+    private void switchToMainScreen() {
+        welcomeLabel.setText("Welcome, " + currentAccount.getAccountHolderName());
+        updateBalanceDisplay();
+        
+        setContentPane(mainPanel);
+        revalidate();
+        repaint();
+    }
+    
+    // Runs an account operation on the worker thread with the menu disabled,
+    // then hands the result to onResult on the EDT.
+    private <T> void runAsync(Supplier<T> operation, Consumer<T> onResult) {
+        setBusy(true);
+        worker.submit(operation, (value, error) -> {
+            setBusy(false);
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "The operation could not be completed. Please try again.",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (currentAccount != null) {
+                onResult.accept(value);
+            }
+        });
+    }
+    
+    private void setBusy(boolean busy) {
+        for (JButton button : new JButton[] { balanceBtn, withdrawBtn, depositBtn, transferBtn,
+                statementBtn, changePinBtn, logoutBtn }) {
+            button.setEnabled(!busy);
+        }
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+    
+    private void updateBalanceDisplay() {
+        BankAccount account = currentAccount;
+        runAsync(() -> service.balance(account), this::showBalanceLabel);
+    }
+    
+    private void showBalanceLabel(long balance) {
+        balanceLabel.setText("Balance: Rs." + Money.format(balance));
+    }
+    
+    private void showBalance() {
+        BankAccount account = currentAccount;
+        runAsync(() -> service.balance(account), balance -> {
+            String msg = """
+                        Account Information:
+                        
+                        Account Number: %s
+                        Account Holder: %s
+                        Current Balance: Rs.%s""".formatted(
+                        maskAccount(account.getAccountNumber()),
+                        account.getAccountHolderName(),
+                        Money.format(balance));
+            
+            showBalanceLabel(balance);
+            JOptionPane.showMessageDialog(this, msg, "Balance Inquiry", JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+    
+    private void withdrawMoney() {
+        BankAccount account = currentAccount;
+        runAsync(() -> service.balance(account), balance -> promptWithdrawal(account, balance));
+    }
+    
+    private void promptWithdrawal(BankAccount account, long balance) {
+        String input = JOptionPane.showInputDialog(this,
+            """
+            Current Balance: Rs.%s
+            Withdrawal Limits: Rs.%s - Rs.%s
+            
+            Enter withdrawal amount:""".formatted(
+            Money.format(balance),
+            Money.format(AtmService.MIN_WITHDRAWAL_AMOUNT), Money.format(AtmService.MAX_WITHDRAWAL_AMOUNT)),
+            "Cash Withdrawal", JOptionPane.QUESTION_MESSAGE);
+        
+        if (input != null && !input.trim().isEmpty()) {
+            long amount;
+            try {
+                amount = Money.parse(input.trim());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "Please enter a valid amount!", 
+                    "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            runAsync(() -> service.withdraw(account, amount), result -> {
+                if (!result.ok()) {
+                    JOptionPane.showMessageDialog(this, result.message(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    showBalanceLabel(result.balance());
+                    JOptionPane.showMessageDialog(this, 
+                        """
+                        %s
+                        
+                        Amount: Rs.%s
+                        Remaining Balance: Rs.%s
+                        
+                        Please collect your cash!""".formatted(result.message(),
+                        Money.format(result.amount()), Money.format(result.balance())),
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                }
+            });
+        }
+    }
+    
+    private void depositMoney() {
+        BankAccount account = currentAccount;
+        runAsync(() -> service.balance(account), balance -> promptDeposit(account, balance));
+    }
+    
+    private void promptDeposit(BankAccount account, long balance) {
+        String input = JOptionPane.showInputDialog(this,
+            """
+            Current Balance: Rs.%s
+            Deposit Limits: Rs.%s - Rs.%s
+            
+            Enter deposit amount:""".formatted(
+            Money.format(balance),
+            Money.format(AtmService.MIN_DEPOSIT_AMOUNT), Money.format(AtmService.MAX_DEPOSIT_AMOUNT)),
+            "Cash Deposit", JOptionPane.QUESTION_MESSAGE);
+        
+        if (input != null && !input.trim().isEmpty()) {
+            long amount;
+            try {
+                amount = Money.parse(input.trim());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "Please enter a valid amount!", 
+                    "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            runAsync(() -> service.deposit(account, amount), result -> {
+                if (!result.ok()) {
+                    JOptionPane.showMessageDialog(this, result.message(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    showBalanceLabel(result.balance());
+                    JOptionPane.showMessageDialog(this, 
+                        """
+                        %s
+                        
+                        Amount: Rs.%s
+                        New Balance: Rs.%s
+                        
+                        Please collect your receipt!""".formatted(result.message(),
+                        Money.format(result.amount()), Money.format(result.balance())),
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                }
+            });
+        }
+    }
+    
+    private void transferFunds() {
+        JPanel panel = new JPanel(new GridLayout(2, 2, 5, 5));
+        
+        JTextField toAccountField = new JTextField();
+        JTextField amountField = new JTextField();
+        
+        panel.add(new JLabel("To Account Number:"));
+        panel.add(toAccountField);
+        panel.add(new JLabel("Amount (Rs.):"));
+        panel.add(amountField);
+        
+        int choice = JOptionPane.showConfirmDialog(this, panel, "Fund Transfer", 
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE);
+        
+        if (choice == JOptionPane.OK_OPTION) {
+            BankAccount account = currentAccount;
+            String toAccount = toAccountField.getText().trim();
+            long amount;
+            try {
+                amount = Money.parse(amountField.getText().trim());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "Please enter a valid amount!", 
+                    "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            runAsync(() -> service.transfer(account, toAccount, amount), result -> {
+                if (!result.ok()) {
+                    JOptionPane.showMessageDialog(this, result.message(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    showBalanceLabel(result.balance());
+                    JOptionPane.showMessageDialog(this, 
+                        """
+                        %s
+                        
+                        To Account: %s
+                        Amount: Rs.%s
+                        Remaining Balance: Rs.%s""".formatted(result.message(), maskAccount(toAccount),
+                        Money.format(result.amount()), Money.format(result.balance())),
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                }
+            });
+        }
+    }
+    
+    // Each page is a separate query, so older history is only read when the
+    // customer asks for it.
+    private void showStatement(TransactionJournal.Filter filter, int before) {
+        BankAccount account = currentAccount;
+        runAsync(() -> new StatementView(service.balance(account), service.dailyLimit(),
+            service.remainingDailyLimit(account), filter, service.statement(account, filter, before, STATEMENT_ENTRIES)),
+            view -> displayStatement(account, view));
+    }
+    
+    private void displayStatement(BankAccount account, StatementView view) {
+        StringBuilder statement = new StringBuilder("""
+                          Mini Statement
+                          
+                          Account Number: %s
+                          Account Holder: %s
+                          Current Balance: Rs.%s
+                          Daily Limit: Rs.%s (Rs.%s remaining)
+                          
+                          Recent Transactions:
+                          """.formatted(
+                          maskAccount(account.getAccountNumber()),
+                          account.getAccountHolderName(),
+                          Money.format(view.balance()),
+                          Money.format(view.dailyLimit()),
+                          Money.format(view.remainingLimit())));
+        
+        List<TransactionJournal.Entry> entries = view.page().entries();
+        if (entries.isEmpty()) {
+            statement.append(view.filter() == TransactionJournal.Filter.ALL
+                ? "No transactions yet\n" : "No matching transactions\n");
+        }
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yy HH:mm");
+        for (TransactionJournal.Entry entry : entries) {
+            statement.append("%s  %-12s %14s  Bal %s%n".formatted(
+                dateFormat.format(new Date(entry.timestamp())),
+                entry.type(),
+                entry.type() == TransactionJournal.Type.PIN_CHANGE ? "" : "Rs." + Money.format(entry.amount()),
+                Money.format(entry.balanceAfter())));
+        }
+        
+        JTextArea textArea = new JTextArea(statement.toString());
+        textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        textArea.setEditable(false);
+        
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(480, 300));
+        
+        showBalanceLabel(view.balance());
+        String[] options = view.page().next() > 0
+            ? new String[] { "Older", "Filter...", "Export...", "Close" }
+            : new String[] { "Filter...", "Export...", "Close" };
+        int choice = JOptionPane.showOptionDialog(this, scrollPane, "Mini Statement", JOptionPane.DEFAULT_OPTION,
+            JOptionPane.INFORMATION_MESSAGE, null, options, options[options.length - 1]);
+        switch (choice < 0 ? "Close" : options[choice]) {
+            case "Older" -> showStatement(view.filter(), view.page().next());
+            case "Filter..." -> {
+                TransactionJournal.Filter filter = promptStatementFilter();
+                showStatement(filter != null ? filter : view.filter(), TransactionJournal.NEWEST);
+            }
+            case "Export..." -> exportStatement(view.filter());
+            default -> { }
+        }
+    }
+    
+    private TransactionJournal.Filter promptStatementFilter() {
+        JPanel panel = new JPanel(new GridLayout(3, 2, 5, 5));
+        JTextField fromField = new JTextField();
+        JTextField toField = new JTextField();
+        JComboBox<String> typeBox = new JComboBox<>();
+        typeBox.addItem("ALL");
+        for (TransactionJournal.Type type : TransactionJournal.Type.values()) {
+            typeBox.addItem(type.name());
+        }
+        
+        panel.add(new JLabel("From (dd-mm-yyyy):"));
+        panel.add(fromField);
+        panel.add(new JLabel("To (dd-mm-yyyy):"));
+        panel.add(toField);
+        panel.add(new JLabel("Type:"));
+        panel.add(typeBox);
+        
+        int result = JOptionPane.showConfirmDialog(this, panel, "Filter Statement", JOptionPane.OK_CANCEL_OPTION);
+        if (result != JOptionPane.OK_OPTION) {
+            return null;
+        }
+        try {
+            LocalDate from = fromField.getText().isBlank() ? null : LocalDate.parse(fromField.getText().trim(), FILTER_DATE);
+            LocalDate to = toField.getText().isBlank() ? null : LocalDate.parse(toField.getText().trim(), FILTER_DATE);
+            Set<TransactionJournal.Type> types = "ALL".equals(typeBox.getSelectedItem())
+                ? EnumSet.noneOf(TransactionJournal.Type.class)
+                : EnumSet.of(TransactionJournal.Type.valueOf((String) typeBox.getSelectedItem()));
+            return TransactionJournal.Filter.days(from, to, types, ZoneId.systemDefault());
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Please enter dates as dd-mm-yyyy!", "Error", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+    }
+    
+    private void exportStatement(TransactionJournal.Filter filter) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("statement.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path target = chooser.getSelectedFile().toPath();
+        BankAccount account = currentAccount;
+        runAsync(() -> {
+            try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+                return service.exportStatement(account, filter, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, rows -> JOptionPane.showMessageDialog(this, rows + " transactions exported to " + target,
+            "Export Complete", JOptionPane.INFORMATION_MESSAGE));
+    }
+    
+    private void changePin() {
+        JPanel panel = new JPanel(new GridLayout(3, 2, 5, 5));
+        
+        JPasswordField currentPinField = new JPasswordField();
+        JPasswordField newPinField = new JPasswordField();
+        JPasswordField confirmPinField = new JPasswordField();
+        
+        panel.add(new JLabel("Current PIN:"));
+        panel.add(currentPinField);
+        panel.add(new JLabel("New PIN:"));
+        panel.add(newPinField);
+        panel.add(new JLabel("Confirm PIN:"));
+        panel.add(confirmPinField);
+        
+        int result = JOptionPane.showConfirmDialog(this, panel, "Change PIN", 
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE);
+        
+        if (result == JOptionPane.OK_OPTION) {
+            BankAccount account = currentAccount;
+            String session = sessionId;
+            String currentPin = new String(currentPinField.getPassword());
+            String newPin = new String(newPinField.getPassword());
+            String confirmPin = new String(confirmPinField.getPassword());
+            
+            runAsync(() -> service.changePin(session, account, currentPin, newPin, confirmPin), pinResult -> {
+                if (!pinResult.ok()) {
+                    JOptionPane.showMessageDialog(this, pinResult.message(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, pinResult.message() + "\nPlease remember your new PIN.", 
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                }
+            });
+        }
+    }
+    
+    private void logout() {
+        int choice = JOptionPane.showConfirmDialog(this, "Are you sure you want to logout?", 
+            "Logout", JOptionPane.YES_NO_OPTION);
+        
+        if (choice == JOptionPane.YES_OPTION) {
+            service.endSession(sessionId);
+            sessionId = UUID.randomUUID().toString();
+            currentAccount = null;
+            accountField.setText("");
+            pinField.setText("");
+            statusLabel.setText(" ");
+            
+            setContentPane(loginPanel);
+            revalidate();
+            repaint();
+            
+            JOptionPane.showMessageDialog(this, "Thank you for using our ATM service!", 
+                "Logged Out", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+    
+    private void exitApp() {
+        int choice = JOptionPane.showConfirmDialog(this, "Are you sure you want to exit?", 
+            "Exit", JOptionPane.YES_NO_OPTION);
+        
+        if (choice == JOptionPane.YES_OPTION) {
+            JOptionPane.showMessageDialog(this, "Thank you for banking with us!\nHave a great day!", 
+                "Goodbye", JOptionPane.INFORMATION_MESSAGE);
+            System.exit(0);
+        }
+    }
+    
+    static String maskAccount(String accountNumber) {
+        if (accountNumber.length() <= 4) return accountNumber;
+        return "****" + accountNumber.substring(accountNumber.length() - 4);
+    }
+    
+    private void showMessage(String message, Color color) {
+        statusLabel.setText(message);
+        statusLabel.setForeground(color);
+    }
+    
+    public static void main(String[] args) {
+        AtmService service = AtmService.openDefault();
+        Runtime.getRuntime().addShutdownHook(new Thread(service::close));
+        SwingUtilities.invokeLater(() -> new ATMSystemMain(service));
+    }
+}
\ No newline at end of file
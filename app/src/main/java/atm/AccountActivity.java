@@ -0,0 +1,108 @@
+package atm;
+
+// Recent withdrawal and failed-PIN history of one account, as the fraud
+// rules see it. Timestamps are whole seconds since EPOCH in two small ring
+// buffers that share one int array, so an account costs about 150 bytes
+// however busy it is. Only paid withdrawals are recorded; ones that were
+// admitted but are not settled yet are counted separately. Not thread-safe;
+// FraudEngine locks around each use.
+final class AccountActivity {
+
+    static final int WITHDRAWAL_SLOTS = 16;
+    static final int PIN_FAILURE_SLOTS = 8;
+
+    // 2020-01-01T00:00:00Z; seconds since then fit an int until 2088.
+    private static final long EPOCH = 1_577_836_800_000L;
+    // New amounts move the running average by 1/AVERAGE_WEIGHT.
+    private static final int AVERAGE_WEIGHT = 8;
+
+    private final int[] seconds = new int[WITHDRAWAL_SLOTS + PIN_FAILURE_SLOTS];
+    private int nextWithdrawal;
+    private int nextPinFailure;
+    private long averageAmount;
+    private int samples;
+    private int inFlight;
+    private int lastSecond;
+    private boolean retired;
+
+    // Paid withdrawals in the window plus those still in flight, so
+    // concurrent withdrawals cannot all slip under a velocity limit.
+    int withdrawalsSince(long fromMillis) {
+        return countSince(0, WITHDRAWAL_SLOTS, fromMillis) + inFlight;
+    }
+
+    int pinFailuresSince(long fromMillis) {
+        return countSince(WITHDRAWAL_SLOTS, PIN_FAILURE_SLOTS, fromMillis);
+    }
+
+    long averageAmount() {
+        return averageAmount;
+    }
+
+    // Withdrawals folded into the average, capped so it cannot overflow.
+    int samples() {
+        return samples;
+    }
+
+    void beginWithdrawal() {
+        inFlight++;
+    }
+
+    // Only a withdrawal that was paid out enters the history and the
+    // average; a refused one leaves no trace.
+    void endWithdrawal(long amount, long nowMillis, boolean paid) {
+        inFlight--;
+        if (paid) {
+            recordWithdrawal(amount, nowMillis);
+        }
+    }
+
+    void recordWithdrawal(long amount, long nowMillis) {
+        seconds[nextWithdrawal] = touch(nowMillis);
+        nextWithdrawal = (nextWithdrawal + 1) % WITHDRAWAL_SLOTS;
+        averageAmount = samples == 0 ? amount : averageAmount + (amount - averageAmount) / AVERAGE_WEIGHT;
+        samples = Math.min(samples + 1, Integer.MAX_VALUE - 1);
+    }
+
+    void recordPinFailure(long nowMillis) {
+        seconds[WITHDRAWAL_SLOTS + nextPinFailure] = touch(nowMillis);
+        nextPinFailure = (nextPinFailure + 1) % PIN_FAILURE_SLOTS;
+    }
+
+    // Nothing in flight and nothing recorded at or after fromMillis.
+    boolean idleSince(long fromMillis) {
+        return inFlight == 0 && lastSecond < second(fromMillis);
+    }
+
+    // Set when FraudEngine drops the activity from its map; whoever still
+    // holds it must look the account up again.
+    boolean retired() {
+        return retired;
+    }
+
+    void retire() {
+        retired = true;
+    }
+
+    // Empty slots hold 0, which is older than any window.
+    private int countSince(int from, int length, long fromMillis) {
+        int threshold = second(fromMillis);
+        int count = 0;
+        for (int i = from; i < from + length; i++) {
+            if (seconds[i] != 0 && seconds[i] >= threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int touch(long nowMillis) {
+        int second = second(nowMillis);
+        lastSecond = Math.max(lastSecond, second);
+        return second;
+    }
+
+    private static int second(long millis) {
+        return (int) Math.max(1, (millis - EPOCH) / 1000);
+    }
+}
@@ -0,0 +1,234 @@
+package atm;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+// Streams accounts between CSV files and the SQLite store.
+//
+//   java AccountBulkLoader import accounts.csv [atm.db]
+//   java AccountBulkLoader export accounts.csv [atm.db]
+//
+// CSV columns: account_number,holder_name,balance,pin. Balances are in
+// rupees ("1500.50"). PINs may be plaintext (hashed in parallel during the
+// import, at -Datm.pin.iterations cost) or already-hashed values as written
+// by export, which are stored as-is.
+//
+// Rows that would break the ATM later are skipped and listed by line number
+// in the import report: account numbers that are not 1-18 digits (the
+// journal, AccountTable and the withdrawal limiter key accounts by long),
+// missing names, malformed or negative balances, and PINs that are neither
+// four digits nor a well-formed hash.
+final class AccountBulkLoader {
+
+    private static final int BATCH_SIZE = 50_000;
+    private static final int REPORTED_REJECTS = 100;
+    private static final String HEADER = "account_number,holder_name,balance,pin";
+    private static final List<BankAccount> END = List.of();
+    private static final Pattern ACCOUNT_NUMBER = Pattern.compile("[1-9]\\d{0,17}");
+    private static final Pattern PLAIN_PIN = Pattern.compile("\\d{4}");
+
+    // The first REPORTED_REJECTS rejections are kept, each as
+    // "line <n>: <reason>"; 'rejected' counts them all.
+    record ImportReport(long accepted, long inserted, long rejected, List<String> rejections) {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || !args[0].equals("import") && !args[0].equals("export")) {
+            System.err.println("usage: AccountBulkLoader import|export <file.csv> [database]");
+            System.exit(2);
+        }
+        Path csv = Path.of(args[1]);
+        String database = args.length > 2 ? args[2] : System.getProperty("atm.db", "atm.db");
+        try (SqliteAccountRepository repository = SqliteAccountRepository.open(database)) {
+            long start = System.nanoTime();
+            long rows;
+            if (args[0].equals("import")) {
+                ImportReport report = importCsv(repository, csv);
+                print(report);
+                rows = report.accepted();
+            } else {
+                rows = exportCsv(repository, csv);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%sed %d accounts in %.1fs (%.0f rows/s)%n", args[0], rows, seconds, rows / seconds);
+        }
+    }
+
+    // The reading thread parses and hashes one batch while a writer thread
+    // commits the previous one; the two-slot queue bounds memory to a few
+    // batches no matter how large the file is.
+    static ImportReport importCsv(SqliteAccountRepository repository, Path csv) throws IOException, InterruptedException {
+        BlockingQueue<List<BankAccount>> queue = new ArrayBlockingQueue<>(2);
+        AtomicLong inserted = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (List<BankAccount> batch = queue.take(); batch != END; batch = queue.take()) {
+                    inserted.addAndGet(repository.insertBatch(batch));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                failure.set(e);
+                queue.clear();
+            }
+        }, "bulk-writer");
+        writer.start();
+
+        long read = 0;
+        long rejected = 0;
+        List<String> rejections = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            List<String[]> rows = new ArrayList<>(BATCH_SIZE);
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null && failure.get() == null) {
+                lineNumber++;
+                if (line.isBlank() || lineNumber == 1 && line.startsWith("account_number")) {
+                    continue;
+                }
+                String[] fields = parseLine(line);
+                String problem = problem(fields);
+                if (problem != null) {
+                    if (++rejected <= REPORTED_REJECTS) {
+                        rejections.add("line " + lineNumber + ": " + problem);
+                    }
+                    continue;
+                }
+                rows.add(fields);
+                if (rows.size() == BATCH_SIZE) {
+                    queue.put(toAccounts(rows));
+                    read += rows.size();
+                    rows = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!rows.isEmpty()) {
+                queue.put(toAccounts(rows));
+                read += rows.size();
+            }
+        } finally {
+            if (failure.get() == null) {
+                queue.put(END);
+            }
+            writer.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return new ImportReport(read, inserted.get(), rejected, List.copyOf(rejections));
+    }
+
+    private static void print(ImportReport report) {
+        System.out.printf("read %d rows, %d new accounts, %d rejected%n", report.accepted(), report.inserted(), report.rejected());
+        for (String rejection : report.rejections()) {
+            System.out.println("  " + rejection);
+        }
+        if (report.rejected() > report.rejections().size()) {
+            System.out.printf("  ... and %d more%n", report.rejected() - report.rejections().size());
+        }
+    }
+
+    // Why the row cannot be loaded, or null if it can. PINs are never echoed.
+    static String problem(String[] fields) {
+        if (fields.length != 4) {
+            return "expected 4 fields, got " + fields.length;
+        }
+        String number = fields[0].trim();
+        if (!ACCOUNT_NUMBER.matcher(number).matches()) {
+            return "account number must be 1-18 digits without a leading zero: " + number;
+        }
+        if (fields[1].isBlank()) {
+            return "holder name is empty";
+        }
+        String balance = fields[2].trim();
+        try {
+            if (Money.parse(balance) < 0) {
+                return "balance is negative: " + balance;
+            }
+        } catch (NumberFormatException e) {
+            return "balance is not an amount: " + balance;
+        }
+        String pin = fields[3].trim();
+        if (PinHasher.isHashed(pin) ? !PinHasher.isWellFormed(pin) : !PLAIN_PIN.matcher(pin).matches()) {
+            return "PIN must be 4 digits or an exported hash";
+        }
+        return null;
+    }
+
+    static long exportCsv(SqliteAccountRepository repository, Path csv) throws IOException {
+        long[] written = new long[1];
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            repository.forEachAccount(account -> {
+                try {
+                    out.write(account.getAccountNumber());
+                    out.write(',');
+                    out.write(quote(account.getAccountHolderName()));
+                    out.write(',');
+                    out.write(Money.format(account.getBalance()));
+                    out.write(',');
+                    out.write(account.getPinHash());
+                    out.newLine();
+                    written[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return written[0];
+    }
+
+    private static List<BankAccount> toAccounts(List<String[]> rows) {
+        return rows.parallelStream()
+            .map(f -> new BankAccount(f[0].trim(), f[1].trim(), Money.parse(f[2].trim()),
+                PinHasher.isHashed(f[3].trim()) ? f[3].trim() : PinHasher.hash(f[3].trim())))
+            .toList();
+    }
+
+    static String[] parseLine(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,153 @@
+package atm;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded LRU of live BankAccount instances, split into lock stripes so
+// lookups on different accounts rarely contend. An entry is never evicted
+// while an operation holds it (acquire() until release()) or while the
+// dirty predicate reports unflushed balance changes; a stripe may run over
+// its share until they are released and flushed.
+final class AccountCache {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final int stripeCapacity;
+    private final Function<String, BankAccount> loader;
+    private final Predicate<String> dirty;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    AccountCache(int capacity, Function<String, BankAccount> loader, Predicate<String> dirty) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeCapacity = Math.max(1, capacity / STRIPES);
+        this.loader = loader;
+        this.dirty = dirty;
+    }
+
+    // The cached instance, or null if there is no such account. A caller
+    // that is going to change the account must use acquire() instead.
+    BankAccount get(String accountNumber) {
+        BankAccount account = acquire(accountNumber);
+        if (account != null) {
+            release(accountNumber);
+        }
+        return account;
+    }
+
+    // The cached instance, held in the cache until release(). Returns null,
+    // holding nothing, if there is no such account.
+    BankAccount acquire(String accountNumber) {
+        Stripe stripe = stripe(accountNumber);
+        while (true) {
+            long evictedBefore;
+            synchronized (stripe) {
+                Slot slot = stripe.slots.get(accountNumber);
+                if (slot != null) {
+                    hits.increment();
+                    slot.pins++;
+                    return slot.account;
+                }
+                evictedBefore = stripe.evictions;
+            }
+            misses.increment();
+            BankAccount loaded = loader.apply(accountNumber);
+            if (loaded == null) {
+                return null;
+            }
+            synchronized (stripe) {
+                Slot slot = stripe.slots.get(accountNumber);
+                if (slot == null) {
+                    // An entry evicted while this one loaded may have been
+                    // the same account, flushed after the row was read.
+                    if (stripe.evictions != evictedBefore) {
+                        continue;
+                    }
+                    slot = new Slot(loaded);
+                    stripe.slots.put(accountNumber, slot);
+                }
+                slot.pins++;
+                evict(stripe);
+                return slot.account;
+            }
+        }
+    }
+
+    void release(String accountNumber) {
+        Stripe stripe = stripe(accountNumber);
+        synchronized (stripe) {
+            Slot slot = stripe.slots.get(accountNumber);
+            if (slot == null || slot.pins == 0) {
+                throw new IllegalStateException("Account " + accountNumber + " is not acquired");
+            }
+            slot.pins--;
+        }
+    }
+
+    private void evict(Stripe stripe) {
+        Iterator<Map.Entry<String, Slot>> eldest = stripe.slots.entrySet().iterator();
+        while (stripe.slots.size() > stripeCapacity && eldest.hasNext()) {
+            Map.Entry<String, Slot> entry = eldest.next();
+            if (entry.getValue().pins == 0 && !dirty.test(entry.getKey())) {
+                eldest.remove();
+                stripe.evictions++;
+                evictions.increment();
+            }
+        }
+    }
+
+    private Stripe stripe(String accountNumber) {
+        return stripes[(accountNumber.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.slots.size();
+            }
+        }
+        return size;
+    }
+
+    // Guarded by its own monitor.
+    private static final class Stripe {
+        final LinkedHashMap<String, Slot> slots = new LinkedHashMap<>(16, 0.75f, true);
+        long evictions;
+    }
+
+    private static final class Slot {
+        final BankAccount account;
+        int pins;
+
+        Slot(BankAccount account) {
+            this.account = account;
+        }
+    }
+}
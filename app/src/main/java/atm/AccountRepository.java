@@ -0,0 +1,39 @@
+package atm;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjLongConsumer;
+
+interface AccountRepository extends AutoCloseable {
+
+    BankAccount findByNumber(String accountNumber);
+
+    void insertIfAbsent(BankAccount account);
+
+    void updatePinHash(String accountNumber, String pinHash);
+
+    // Applies coalesced balance deltas and records the write-behind
+    // generation they belong to, atomically.
+    void applyBalanceChanges(Map<String, Long> deltas, long generation);
+
+    long appliedGeneration();
+
+    // Batch jobs split the store into partitionCount() fixed ranges that can
+    // be scanned and committed independently. A range never changes which
+    // accounts it covers, so a resumed job sees the partitions it
+    // checkpointed.
+    int partitionCount();
+
+    void forEachBalance(int partition, ObjLongConsumer<String> action);
+
+    // Applies the deltas and marks the partition done for batchId in one
+    // step. Returns false, changing nothing, if it was already done.
+    boolean commitPartition(String batchId, int partition, Map<String, Long> deltas);
+
+    Set<Integer> committedPartitions(String batchId);
+
+    long count();
+
+    @Override
+    void close();
+}
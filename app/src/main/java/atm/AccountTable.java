@@ -0,0 +1,282 @@
+package atm;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjLongConsumer;
+
+// Compact in-memory account store for very large customer bases. Accounts
+// are keyed by the account number parsed into a long and live in parallel
+// primitive arrays (open addressing, linear probing): balance, PBKDF2
+// iteration count, raw salt+hash bytes and a reference into a shared name
+// arena. No per-account objects exist until findByNumber() is called.
+//
+// Inserts must come from one thread (bulk load at startup); lookups and
+// balance updates are safe from any thread, balances change atomically.
+final class AccountTable implements AccountRepository {
+
+    private static final long EMPTY = -1;
+    private static final int PIN_CHUNK_SLOTS = 1 << 16;
+    private static final int NAME_CHUNK_BYTES = 1 << 24;
+    private static final int MAX_NAME_BYTES = 255;
+    private static final int PARTITION_SLOTS = 1 << 16;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private long[] keys;
+    private long[] balances;
+    private int[] pinIterations;
+    private byte[][] pinChunks;
+    private long[] nameRefs;
+    private byte[][] nameChunks = new byte[1][];
+    private long namePosition;
+    private int mask;
+    private int size;
+    private volatile long appliedGeneration;
+    private final Map<String, Set<Integer>> batchProgress = new ConcurrentHashMap<>();
+
+    AccountTable(int expectedAccounts) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, expectedAccounts * 3 / 2)) << 1));
+        nameChunks[0] = new byte[NAME_CHUNK_BYTES];
+    }
+
+    // Only the canonical form [1-9]\d{0,17} has a key; "0123", "+123" and
+    // anything else map to EMPTY so they can never alias a real account.
+    static long key(String accountNumber) {
+        int length = accountNumber.length();
+        if (length == 0 || length > 18 || accountNumber.charAt(0) == '0') {
+            return EMPTY;
+        }
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return EMPTY;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        balances = new long[capacity];
+        pinIterations = new int[capacity];
+        pinChunks = new byte[(capacity + PIN_CHUNK_SLOTS - 1) / PIN_CHUNK_SLOTS][];
+        nameRefs = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        int i = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private int find(String accountNumber) {
+        long key = key(accountNumber);
+        if (key == EMPTY) {
+            return -1;
+        }
+        int i = slot(key);
+        return keys[i] == EMPTY ? -1 : i;
+    }
+
+    @Override
+    public BankAccount findByNumber(String accountNumber) {
+        int i = find(accountNumber);
+        if (i < 0) {
+            return null;
+        }
+        return new BankAccount(accountNumber, holderName(i), (long) LONGS.getVolatile(balances, i), pinHash(i));
+    }
+
+    @Override
+    public void insertIfAbsent(BankAccount account) {
+        long key = key(account.getAccountNumber());
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Not a canonical account number: " + account.getAccountNumber());
+        }
+        if (keys[slot(key)] != EMPTY) {
+            return;
+        }
+        if ((size + 1) * 10L > keys.length * 7L) {
+            grow();
+        }
+        int i = slot(key);
+        String pinHash = PinHasher.isHashed(account.getPinHash())
+            ? account.getPinHash() : PinHasher.hash(account.getPinHash());
+        store(i, key, account.getBalance(), PinHasher.iterations(pinHash), null, 0,
+            appendName(account.getAccountHolderName()));
+        PinHasher.toRaw(pinHash, pinChunk(i), pinOffset(i));
+        size++;
+    }
+
+    // Adds delta to the balance; unknown accounts are ignored.
+    void add(String accountNumber, long delta) {
+        int i = find(accountNumber);
+        if (i >= 0) {
+            LONGS.getAndAdd(balances, i, delta);
+        }
+    }
+
+    @Override
+    public void updatePinHash(String accountNumber, String pinHash) {
+        int i = find(accountNumber);
+        if (i < 0) {
+            return;
+        }
+        synchronized (this) {
+            pinIterations[i] = PinHasher.iterations(pinHash);
+            PinHasher.toRaw(pinHash, pinChunk(i), pinOffset(i));
+        }
+    }
+
+    @Override
+    public void applyBalanceChanges(Map<String, Long> deltas, long generation) {
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            add(delta.getKey(), delta.getValue());
+        }
+        appliedGeneration = generation;
+    }
+
+    @Override
+    public long appliedGeneration() {
+        return appliedGeneration;
+    }
+
+    @Override
+    public long count() {
+        return size;
+    }
+
+    // Partitions are slot ranges; they only move when the table grows, which
+    // happens during the single-threaded load, never during a batch.
+    @Override
+    public int partitionCount() {
+        return (keys.length + PARTITION_SLOTS - 1) / PARTITION_SLOTS;
+    }
+
+    @Override
+    public void forEachBalance(int partition, ObjLongConsumer<String> action) {
+        int end = Math.min(keys.length, (partition + 1) * PARTITION_SLOTS);
+        for (int i = partition * PARTITION_SLOTS; i < end; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(String.valueOf(keys[i]), (long) LONGS.getVolatile(balances, i));
+            }
+        }
+    }
+
+    // Progress lives only as long as the table does, like the balances.
+    @Override
+    public boolean commitPartition(String batchId, int partition, Map<String, Long> deltas) {
+        if (!batchProgress.computeIfAbsent(batchId, id -> ConcurrentHashMap.newKeySet()).add(partition)) {
+            return false;
+        }
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            add(delta.getKey(), delta.getValue());
+        }
+        return true;
+    }
+
+    @Override
+    public Set<Integer> committedPartitions(String batchId) {
+        return Set.copyOf(batchProgress.getOrDefault(batchId, Set.of()));
+    }
+
+    // Bytes held by the table's arrays, for comparing against a HashMap of
+    // BankAccount objects.
+    long footprintBytes() {
+        long perSlot = 8L + 8 + 4 + 8;
+        long pins = 0;
+        for (byte[] chunk : pinChunks) {
+            pins += chunk == null ? 0 : chunk.length;
+        }
+        long names = 0;
+        for (byte[] chunk : nameChunks) {
+            names += chunk == null ? 0 : chunk.length;
+        }
+        return perSlot * keys.length + pins + names;
+    }
+
+    @Override
+    public void close() {
+        // nothing to release; the arrays go with the table
+    }
+
+    private String holderName(int i) {
+        long ref = nameRefs[i];
+        long position = ref >>> 8;
+        int length = (int) (ref & 0xFF);
+        byte[] chunk = nameChunks[(int) (position / NAME_CHUNK_BYTES)];
+        return new String(chunk, (int) (position % NAME_CHUNK_BYTES), length, StandardCharsets.UTF_8);
+    }
+
+    private synchronized String pinHash(int i) {
+        return PinHasher.fromRaw(pinIterations[i], pinChunk(i), pinOffset(i));
+    }
+
+    private long appendName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Holder name longer than " + MAX_NAME_BYTES + " bytes: " + name);
+        }
+        int offset = (int) (namePosition % NAME_CHUNK_BYTES);
+        if (offset + bytes.length > NAME_CHUNK_BYTES) {
+            namePosition += NAME_CHUNK_BYTES - offset;
+            offset = 0;
+        }
+        int chunkIndex = (int) (namePosition / NAME_CHUNK_BYTES);
+        if (chunkIndex == nameChunks.length) {
+            nameChunks = Arrays.copyOf(nameChunks, chunkIndex + 1);
+            nameChunks[chunkIndex] = new byte[NAME_CHUNK_BYTES];
+        }
+        System.arraycopy(bytes, 0, nameChunks[chunkIndex], offset, bytes.length);
+        long ref = namePosition << 8 | bytes.length;
+        namePosition += bytes.length;
+        return ref;
+    }
+
+    private void store(int i, long key, long balance, int iterations, byte[] rawPin, int rawOffset, long nameRef) {
+        keys[i] = key;
+        balances[i] = balance;
+        pinIterations[i] = iterations;
+        nameRefs[i] = nameRef;
+        if (rawPin != null) {
+            System.arraycopy(rawPin, rawOffset, pinChunk(i), pinOffset(i), PinHasher.RAW_BYTES);
+        }
+    }
+
+    private byte[] pinChunk(int i) {
+        int chunk = i / PIN_CHUNK_SLOTS;
+        if (pinChunks[chunk] == null) {
+            pinChunks[chunk] = new byte[PIN_CHUNK_SLOTS * PinHasher.RAW_BYTES];
+        }
+        return pinChunks[chunk];
+    }
+
+    private static int pinOffset(int i) {
+        return (i % PIN_CHUNK_SLOTS) * PinHasher.RAW_BYTES;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldBalances = balances;
+        int[] oldIterations = pinIterations;
+        byte[][] oldPins = pinChunks;
+        long[] oldNames = nameRefs;
+        allocate(oldKeys.length * 2);
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldKeys[old] != EMPTY) {
+                store(slot(oldKeys[old]), oldKeys[old], oldBalances[old], oldIterations[old],
+                    oldPins[old / PIN_CHUNK_SLOTS], pinOffset(old), oldNames[old]);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package atm;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Opens many concurrent terminal sessions against an AtmServer, runs a mix of
+// balance/deposit/withdraw requests and reports throughput, latency and the
+// replies by status. Session i logs in to account firstAccount + i % accounts,
+// so every account in the range must exist with the same PIN.
+//
+//   java AtmLoadClient [host] [port] [sessions] [requestsPerSession] [firstAccount] [accounts] [pin]
+final class AtmLoadClient {
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : AtmServer.DEFAULT_PORT;
+        int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        long firstAccount = args.length > 4 ? Long.parseLong(args[4]) : 100_000_000L;
+        int accounts = args.length > 5 ? Integer.parseInt(args[5]) : sessions;
+        String pin = args.length > 6 ? args[6] : "1234";
+        if (accounts < 1) {
+            throw new IllegalArgumentException("accounts must be at least 1");
+        }
+
+        long[][] latencies = new long[sessions][];
+        Map<String, LongAdder> replies = new ConcurrentHashMap<>();
+        AtomicInteger failedSessions = new AtomicInteger();
+        long start = System.nanoTime();
+        ExecutorService executor = AtmServer.newSessionExecutor();
+        for (int i = 0; i < sessions; i++) {
+            int session = i;
+            executor.execute(() -> {
+                try {
+                    String account = String.valueOf(firstAccount + session % accounts);
+                    latencies[session] = runSession(host, port, account, pin, requests, replies);
+                } catch (IOException e) {
+                    failedSessions.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        long elapsed = System.nanoTime() - start;
+
+        long[] all = Arrays.stream(latencies).filter(l -> l != null).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("sessions=%d failed=%d requests=%d elapsed=%.2fs%n",
+            sessions, failedSessions.get(), all.length, elapsed / 1e9);
+        if (all.length > 0) {
+            System.out.printf("throughput=%.0f req/s p50=%.3fms p99=%.3fms max=%.3fms%n",
+                all.length / (elapsed / 1e9), percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6,
+                all[all.length - 1] / 1e6);
+        }
+        Map<String, Long> counts = new TreeMap<>();
+        replies.forEach((status, count) -> counts.put(status, count.sum()));
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        if (total > 0) {
+            long errors = total - counts.getOrDefault("OK", 0L);
+            System.out.printf("replies=%d errors=%d (%.2f%%) %s%n", total, errors, 100.0 * errors / total, counts);
+        }
+    }
+
+    // A session that dies part way is counted as failed; its replies so far
+    // stay in the status counts but its latencies are dropped.
+    private static long[] runSession(String host, int port, String account, String pin, int requests,
+                                     Map<String, LongAdder> replies) throws IOException {
+        long[] latencies = new long[requests];
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String login = call(in, out, "LOGIN " + account + " " + pin);
+            if (!login.startsWith("OK")) {
+                throw new IOException("Login rejected for " + account + ": " + login);
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < requests; i++) {
+                int roll = random.nextInt(10);
+                String request = roll < 6 ? "BALANCE" : roll < 8 ? "DEPOSIT 100" : "WITHDRAW 100";
+                long begin = System.nanoTime();
+                String reply = call(in, out, request);
+                latencies[i] = System.nanoTime() - begin;
+                replies.computeIfAbsent(status(reply), s -> new LongAdder()).increment();
+            }
+            call(in, out, "QUIT");
+        }
+        return latencies;
+    }
+
+    private static String call(BufferedReader in, BufferedWriter out, String request) throws IOException {
+        out.write(request);
+        out.newLine();
+        out.flush();
+        String reply = in.readLine();
+        if (reply == null) {
+            throw new IOException("Server closed the connection");
+        }
+        return reply;
+    }
+
+    // "OK ..." or the status word of "ERR <STATUS> <message>".
+    private static String status(String reply) {
+        if (!reply.startsWith("ERR ")) {
+            return "OK";
+        }
+        int end = reply.indexOf(' ', 4);
+        return end < 0 ? reply.substring(4) : reply.substring(4, end);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
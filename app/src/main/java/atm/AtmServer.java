@@ -0,0 +1,307 @@
+package atm;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Line-oriented TCP front end for AtmService. Each connection is one terminal
+// session with its own logged-in account, served on its own (virtual) thread.
+//
+//   LOGIN <account> <pin>            -> OK <holder name>
+//   BALANCE                          -> OK <balance>
+//   WITHDRAW <amount> [requestId]    -> OK <amount> <balance>
+//   DEPOSIT <amount> [requestId]     -> OK <amount> <balance>
+//   TRANSFER <account> <amount>      -> OK <amount> <balance>
+//   PIN <current> <new> <confirm>    -> OK
+//   HISTORY [limit=n] [before=cursor] [from=yyyy-mm-dd] [to=yyyy-mm-dd] [types=DEBIT,CREDIT]
+//                                    -> OK <cursor> <time>,<type>,<amount>,<balance>;...
+//   STATEMENT [count]                -> OK <time>,<type>,<amount>,<balance>;...
+//   LOGOUT | QUIT                    -> OK
+//   STATS                            -> OK hits=.. misses=.. dirty=.. flushes=.. (no login needed)
+//
+// Failures are answered with "ERR <STATUS> <message>". A request that cannot
+// be parsed gets INVALID_AMOUNT or BAD_REQUEST; anything that fails inside
+// the service gets INTERNAL_ERROR and the session stays open. A terminal that
+// resends a WITHDRAW or DEPOSIT with the same requestId (a UUID) after a
+// dropped connection gets the original outcome instead of a second debit.
+final class AtmServer implements AutoCloseable {
+
+    static final int DEFAULT_PORT = 9090;
+
+    private final AtmService service;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions = newSessionExecutor();
+    private final Thread acceptor;
+
+    AtmServer(AtmService service, int port) throws IOException {
+        this.service = service;
+        this.serverSocket = new ServerSocket(port, 4096);
+        this.acceptor = new Thread(this::acceptLoop, "atm-acceptor");
+    }
+
+    void start() {
+        acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Virtual threads when the runtime has them (JDK 21+), otherwise a cached
+    // pool of platform threads so the server still runs on older JDKs.
+    static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "atm-session");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            Session session = new Session();
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String reply = session.handle(line.trim());
+                    out.write(reply);
+                    out.newLine();
+                    out.flush();
+                    if (session.closed) {
+                        break;
+                    }
+                }
+            } finally {
+                service.endSession(session.id);
+            }
+        } catch (IOException e) {
+            // terminal went away; nothing to clean up beyond the socket
+        }
+    }
+
+    private final class Session {
+        private final String id = UUID.randomUUID().toString();
+        private BankAccount account;
+        private boolean closed;
+
+        String handle(String line) {
+            String[] parts = line.split("\\s+");
+            String command = parts[0].toUpperCase();
+            try {
+                switch (command) {
+                    case "LOGIN":
+                        return login(parts);
+                    case "QUIT":
+                        closed = true;
+                        return "OK";
+                    case "STATS":
+                        return "OK " + service.cacheStats();
+                    default:
+                        break;
+                }
+                if (account == null) {
+                    return "ERR NOT_AUTHENTICATED Please login first";
+                }
+                switch (command) {
+                    case "BALANCE":
+                        return "OK " + Money.format(service.balance(account));
+                    case "WITHDRAW":
+                        return reply(service.withdraw(requestId(parts, 2), account, amount(parts, 1)));
+                    case "DEPOSIT":
+                        return reply(service.deposit(requestId(parts, 2), account, amount(parts, 1)));
+                    case "TRANSFER":
+                        return reply(service.transfer(account, argument(parts, 1), amount(parts, 2)));
+                    case "PIN":
+                        return reply(service.changePin(id, account, argument(parts, 1), argument(parts, 2), argument(parts, 3)));
+                    case "STATEMENT":
+                        return statement(parts.length > 1 ? number(parts[1], "STATEMENT count") : 10);
+                    case "HISTORY":
+                        return history(parts);
+                    case "LOGOUT":
+                        service.endSession(id);
+                        account = null;
+                        return "OK";
+                    default:
+                        return "ERR UNKNOWN_COMMAND " + command;
+                }
+            } catch (BadRequest e) {
+                return "ERR " + e.status + " " + e.getMessage();
+            } catch (RuntimeException e) {
+                System.err.println("Session " + id + " " + command + " failed: " + e);
+                return "ERR INTERNAL_ERROR The request could not be completed. Please try again.";
+            }
+        }
+
+        private String login(String[] parts) {
+            AtmService.Login login = service.authenticate(id, argument(parts, 1), argument(parts, 2)).join();
+            if (!login.ok()) {
+                return "ERR " + login.status() + " " + login.message();
+            }
+            account = login.account();
+            return "OK " + account.getAccountHolderName();
+        }
+
+        private String statement(int count) {
+            return entries(new StringBuilder("OK "), service.statement(account, count));
+        }
+
+        // The reply's cursor goes back as before=<cursor> for the next,
+        // older page; 0 means the history is exhausted.
+        private String history(String[] parts) {
+            int limit = 20;
+            int before = TransactionJournal.NEWEST;
+            LocalDate from = null;
+            LocalDate to = null;
+            Set<TransactionJournal.Type> types = EnumSet.noneOf(TransactionJournal.Type.class);
+            try {
+                for (int i = 1; i < parts.length; i++) {
+                    String[] option = parts[i].split("=", 2);
+                    String value = argument(option, 1);
+                    switch (option[0]) {
+                        case "limit" -> limit = Integer.parseInt(value);
+                        case "before" -> before = Integer.parseInt(value);
+                        case "from" -> from = LocalDate.parse(value);
+                        case "to" -> to = LocalDate.parse(value);
+                        case "types" -> {
+                            for (String type : value.split(",")) {
+                                types.add(TransactionJournal.Type.valueOf(type));
+                            }
+                        }
+                        default -> throw new BadRequest("BAD_REQUEST", "Unknown option " + option[0]);
+                    }
+                }
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new BadRequest("BAD_REQUEST", "Bad HISTORY option: " + e.getMessage());
+            }
+            TransactionJournal.Page page = service.statement(account,
+                TransactionJournal.Filter.days(from, to, types, ZoneId.systemDefault()), before, limit);
+            return entries(new StringBuilder("OK ").append(page.next()).append(' '), page.entries());
+        }
+
+        private String entries(StringBuilder sb, List<TransactionJournal.Entry> entries) {
+            for (TransactionJournal.Entry entry : entries) {
+                sb.append(entry.timestamp()).append(',').append(entry.type()).append(',')
+                    .append(Money.format(entry.amount())).append(',')
+                    .append(Money.format(entry.balanceAfter())).append(';');
+            }
+            return sb.toString();
+        }
+
+        private String reply(AtmService.Result result) {
+            if (!result.ok()) {
+                return "ERR " + result.status() + " " + result.message();
+            }
+            return "OK " + Money.format(result.amount()) + " " + Money.format(result.balance());
+        }
+
+        private String argument(String[] parts, int index) {
+            if (index >= parts.length) {
+                throw new BadRequest("BAD_REQUEST", "Missing argument " + index + " for " + parts[0]);
+            }
+            return parts[index];
+        }
+
+        private long amount(String[] parts, int index) {
+            String text = argument(parts, index);
+            try {
+                return Money.parse(text);
+            } catch (NumberFormatException e) {
+                throw new BadRequest("INVALID_AMOUNT", "Please enter a valid amount!");
+            }
+        }
+
+        private int number(String text, String what) {
+            try {
+                return Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                throw new BadRequest("BAD_REQUEST", "Bad " + what + ": " + text);
+            }
+        }
+
+        // Without a requestId the request is treated as new every time.
+        private UUID requestId(String[] parts, int index) {
+            if (index >= parts.length) {
+                return UUID.randomUUID();
+            }
+            try {
+                return UUID.fromString(parts[index]);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequest("BAD_REQUEST", "Bad request id: " + parts[index]);
+            }
+        }
+    }
+
+    // A request the terminal got wrong, as opposed to a failure inside the
+    // service; the status goes back in the ERR reply.
+    private static final class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final String status;
+
+        BadRequest(String status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+            acceptor.join();
+            sessions.shutdownNow();
+            sessions.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        AtmService service = AtmService.openDefault();
+        AtmServer server = new AtmServer(service, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            service.close();
+        }));
+        server.start();
+        System.out.println("ATM server listening on port " + server.port());
+    }
+}
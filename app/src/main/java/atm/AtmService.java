@@ -0,0 +1,568 @@
+package atm;
+
+import atm.OperationMetrics.Operation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Headless ATM operations. The Swing frame is one client; anything that can
+// hold a BankAccount reference returned by authenticate() can be another.
+// Session ids are chosen by the caller and scope the PIN verification cache.
+final class AtmService implements AutoCloseable {
+
+    static final long MIN_WITHDRAWAL_AMOUNT = Money.ofRupees(100);
+    static final long MAX_WITHDRAWAL_AMOUNT = Money.ofRupees(10000);
+    static final long WITHDRAWAL_MULTIPLE = Money.ofRupees(100);
+    static final long MIN_DEPOSIT_AMOUNT = Money.ofRupees(10);
+    static final long MAX_DEPOSIT_AMOUNT = Money.ofRupees(50000);
+    static final long MIN_TRANSFER_AMOUNT = Money.ofRupees(1);
+    static final long MAX_TRANSFER_AMOUNT = Money.ofRupees(100000);
+    static final int MAX_STATEMENT_PAGE = 500;
+    private static final DateTimeFormatter EXPORT_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // The request log stores outcomes by code, so a code, once given out,
+    // must never change or be reused; constants may be reordered freely.
+    enum Status {
+        OK(0),
+        INVALID_CREDENTIALS(1),
+        LOCKED_OUT(2),
+        BELOW_MINIMUM(3),
+        ABOVE_MAXIMUM(4),
+        NOT_A_MULTIPLE(5),
+        INSUFFICIENT_FUNDS(6),
+        DAILY_LIMIT_EXCEEDED(7),
+        UNKNOWN_ACCOUNT(8),
+        SAME_ACCOUNT(9),
+        WRONG_PIN(10),
+        INVALID_PIN(11),
+        PIN_MISMATCH(12),
+        IN_PROGRESS(13),
+        ABORTED(14),
+        REVERSED(15),
+        CASH_UNAVAILABLE(16),
+        DECLINED(17);
+
+        private final int code;
+
+        Status(int code) {
+            this.code = code;
+        }
+
+        int code() {
+            return code;
+        }
+
+        // null for a code no status has.
+        static Status ofCode(int code) {
+            for (Status status : values()) {
+                if (status.code == code) {
+                    return status;
+                }
+            }
+            return null;
+        }
+    }
+
+    record Result(Status status, String message, long amount, long balance) {
+        boolean ok() {
+            return status == Status.OK;
+        }
+    }
+
+    record Login(Status status, String message, BankAccount account) {
+        boolean ok() {
+            return status == Status.OK;
+        }
+    }
+
+    private final AccountRepository repository;
+    private final TransactionJournal journal;
+    private final BalanceWriteBehind writeBehind;
+    private final RequestLog requestLog;
+    private final CashCassette cassette;
+    private final Ledger ledger;
+    private final PinVerifier pinVerifier = new PinVerifier();
+    private final LoginGuard loginGuard = new LoginGuard();
+    private final FraudEngine fraudEngine;
+    private final WithdrawalLimiter withdrawalLimiter;
+    private final OperationMetrics metrics = new OperationMetrics();
+    private volatile MetricsEndpoint metricsEndpoint;
+    private StoreLock storeLock;
+
+    AtmService(AccountRepository repository, TransactionJournal journal, BalanceWriteBehind writeBehind,
+               RequestLog requestLog, CashCassette cassette, FraudEngine fraudEngine, int cacheCapacity) {
+        this.repository = repository;
+        this.journal = journal;
+        this.writeBehind = writeBehind;
+        this.requestLog = requestLog;
+        this.cassette = cassette;
+        this.fraudEngine = fraudEngine;
+        this.ledger = new Ledger(repository, journal, writeBehind, cacheCapacity);
+        this.withdrawalLimiter = new WithdrawalLimiter(journal, WithdrawalLimiter.DAILY_LIMIT);
+        recoverRequests();
+        writeBehind.onFlushed(requestLog::applied);
+        writeBehind.start();
+    }
+
+    // A SQLite store is locked for as long as the service is open, so the
+    // end-of-day batch cannot run against it at the same time.
+    static AtmService openDefault() {
+        boolean inMemory = "memory".equals(System.getProperty("atm.store"));
+        String database = System.getProperty("atm.db", "atm.db");
+        StoreLock storeLock = inMemory ? null : StoreLock.acquire(StoreLock.forStore(database));
+        try {
+            AtmService service = openDefault(inMemory ? new AccountTable(1024) : SqliteAccountRepository.open(database), inMemory);
+            service.storeLock = storeLock;
+            return service;
+        } catch (RuntimeException e) {
+            if (storeLock != null) {
+                storeLock.close();
+            }
+            throw e;
+        }
+    }
+
+    private static AtmService openDefault(AccountRepository repository, boolean inMemory) {
+        if (repository.count() == 0) {
+            repository.insertIfAbsent(new BankAccount("123456789", "JAI SUDHAN", Money.ofRupees(501), PinHasher.hash("1234")));
+            repository.insertIfAbsent(new BankAccount("987654321", "RONALDO", Money.ofRupees(75002200999999L), PinHasher.hash("5678")));
+            repository.insertIfAbsent(new BankAccount("555666777", "MAHI", Money.ofRupees(12888575420L), PinHasher.hash("9999")));
+        }
+        TransactionJournal journal = TransactionJournal.open(Path.of(System.getProperty("atm.journal", "atm.journal")));
+        Path scratch = inMemory ? scratchDirectory() : null;
+        BalanceWriteBehind writeBehind = new BalanceWriteBehind(repository, stateFile(scratch, "atm.wal", "atm.wal"),
+            Long.getLong("atm.flush.millis", 200));
+        RequestLog requestLog = RequestLog.open(stateFile(scratch, "atm.requests", "atm.requests"),
+            Integer.getInteger("atm.requests.index", 100_000));
+        AtmService service = new AtmService(repository, journal, writeBehind, requestLog,
+            CashCassette.fromSystemProperties(), FraudEngine.fromSystemProperties(), Integer.getInteger("atm.cache.size", 100_000));
+        Integer metricsPort = Integer.getInteger("atm.metrics.port");
+        if (metricsPort != null) {
+            service.exposeMetrics(metricsPort);
+        }
+        return service;
+    }
+
+    // The in-memory store starts from the seed accounts every run, so its
+    // write-ahead and request logs must not outlive the process either.
+    private static Path scratchDirectory() {
+        try {
+            Path dir = Files.createTempDirectory("atm-state");
+            dir.toFile().deleteOnExit();
+            return dir;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create state directory", e);
+        }
+    }
+
+    private static Path stateFile(Path scratch, String property, String name) {
+        return scratch != null ? scratch.resolve(name) : Path.of(System.getProperty(property, name));
+    }
+
+    // Finishes the withdrawals and deposits that were between BEGIN and END
+    // when the process stopped. A withdrawal whose debit reached the
+    // write-ahead log was never reported to the customer, so no cash was
+    // dispensed: it is reversed. One whose debit never landed is aborted. A
+    // deposit's cash was already taken in, so it is completed either way.
+    // The reversal and replayed credit carry ids of their own, so running
+    // this again after a crash part-way through never applies them twice.
+    private void recoverRequests() {
+        Set<UUID> logged = writeBehind.recoveredRequests();
+        for (RequestLog.Pending pending : requestLog.inFlight()) {
+            BankAccount account = ledger.acquire(pending.accountNumber());
+            if (account == null) {
+                requestLog.end(pending.id(), pending.action(), Status.UNKNOWN_ACCOUNT, 0, 0);
+                continue;
+            }
+            try {
+                recoverRequest(pending, account, logged);
+            } finally {
+                ledger.release(account);
+            }
+        }
+        requestLog.compact();
+    }
+
+    private void recoverRequest(RequestLog.Pending pending, BankAccount account, Set<UUID> logged) {
+        boolean applied = pending.applied() || logged.contains(pending.id());
+        Status status;
+        if (pending.action() == RequestLog.Action.DEPOSIT) {
+            if (!applied) {
+                ledger.credit(account, pending.amount(), pending.id());
+            }
+            status = Status.OK;
+        } else if (applied) {
+            UUID reversal = new UUID(pending.id().getMostSignificantBits(), ~pending.id().getLeastSignificantBits());
+            if (!logged.contains(reversal)) {
+                ledger.reverse(account, pending.amount(), reversal);
+            }
+            status = Status.REVERSED;
+        } else {
+            status = Status.ABORTED;
+        }
+        requestLog.end(pending.id(), pending.action(), status, pending.amount(), account.getBalance());
+    }
+
+    // Completes on the PIN verifier pool; callers on the EDT must hop back
+    // with SwingUtilities.invokeLater before touching components.
+    CompletableFuture<Login> authenticate(String sessionId, String accountNumber, String pin) {
+        long start = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            if (loginGuard.isLocked(accountNumber, System.currentTimeMillis())) {
+                return new Login(Status.LOCKED_OUT, "Too many failed attempts. Try again later.", null);
+            }
+            BankAccount account = ledger.account(accountNumber);
+            if (!pinVerifier.verify(sessionId, account, pin)) {
+                if (account != null) {
+                    loginGuard.recordFailure(accountNumber, System.currentTimeMillis());
+                    fraudEngine.recordPinFailure(accountNumber, System.currentTimeMillis());
+                }
+                return new Login(Status.INVALID_CREDENTIALS, "Invalid account number or PIN!", null);
+            }
+            loginGuard.recordSuccess(accountNumber);
+            return new Login(Status.OK, "Login successful!", account);
+        }, pinVerifier.executor()).whenComplete((login, error) -> {
+            if (error != null) {
+                metrics.recordError(Operation.LOGIN, System.nanoTime() - start);
+            } else {
+                metrics.record(Operation.LOGIN, login.status(), System.nanoTime() - start);
+            }
+        });
+    }
+
+    void endSession(String sessionId) {
+        pinVerifier.endSession(sessionId);
+    }
+
+    // Callers may hold a BankAccount across many requests while the cache
+    // evicts and reloads it; operations always act on the cached instance.
+    private BankAccount live(BankAccount account) {
+        BankAccount cached = ledger.account(account.getAccountNumber());
+        return cached != null ? cached : account;
+    }
+
+    // As live(), for an operation that changes the account: the instance
+    // stays in the cache until the operation returns, so the change cannot
+    // land on a copy that was evicted and reloaded from an older row.
+    private <T> T held(BankAccount account, Function<BankAccount, T> operation) {
+        BankAccount cached = ledger.acquire(account.getAccountNumber());
+        if (cached == null) {
+            return operation.apply(account);
+        }
+        try {
+            return operation.apply(cached);
+        } finally {
+            ledger.release(cached);
+        }
+    }
+
+    long balance(BankAccount account) {
+        return timed(Operation.BALANCE, () -> live(account).getBalance(), balance -> Status.OK);
+    }
+
+    Result withdraw(BankAccount account, long amount) {
+        return withdraw(UUID.randomUUID(), account, amount);
+    }
+
+    // Retrying with the same requestId never withdraws twice; a request that
+    // already finished is answered with its recorded outcome.
+    Result withdraw(UUID requestId, BankAccount account, long amount) {
+        return timed(Operation.WITHDRAW, () -> held(account, live -> attemptWithdraw(requestId, live, amount)), Result::status);
+    }
+
+    private Result attemptWithdraw(UUID requestId, BankAccount account, long amount) {
+        Result previous = previousOutcome(requestId);
+        if (previous != null) {
+            return previous;
+        }
+        if (amount < MIN_WITHDRAWAL_AMOUNT) {
+            return failure(Status.BELOW_MINIMUM, "Minimum withdrawal amount is Rs." + Money.format(MIN_WITHDRAWAL_AMOUNT), account);
+        } else if (amount > MAX_WITHDRAWAL_AMOUNT) {
+            return failure(Status.ABOVE_MAXIMUM, "Maximum withdrawal amount is Rs." + Money.format(MAX_WITHDRAWAL_AMOUNT), account);
+        } else if (amount % WITHDRAWAL_MULTIPLE != 0) {
+            return failure(Status.NOT_A_MULTIPLE, "Please enter amount in multiples of Rs." + Money.format(WITHDRAWAL_MULTIPLE), account);
+        }
+        long now = System.currentTimeMillis();
+        if (fraudEngine.admit(account.getAccountNumber(), amount, now) != null) {
+            return failure(Status.DECLINED, "Withdrawal declined for your security. Please contact your bank.", account);
+        }
+        // Only a withdrawal that is paid out counts in the fraud history.
+        boolean paid = false;
+        try {
+            Result result = attemptAdmittedWithdraw(requestId, account, amount, now);
+            paid = result.ok();
+            return result;
+        } finally {
+            fraudEngine.settle(account.getAccountNumber(), amount, now, paid);
+        }
+    }
+
+    private Result attemptAdmittedWithdraw(UUID requestId, BankAccount account, long amount, long now) {
+        if (!withdrawalLimiter.tryReserve(account.getAccountNumber(), amount, now)) {
+            return failure(Status.DAILY_LIMIT_EXCEEDED, "Daily withdrawal limit of Rs." + Money.format(withdrawalLimiter.limit())
+                + " reached. Remaining today: Rs." + Money.format(withdrawalLimiter.remaining(account.getAccountNumber(), now)), account);
+        }
+        // The notes are set aside before the balance is touched, so an amount
+        // this terminal cannot pay never reaches the account.
+        long notes = 0;
+        boolean debited = false;
+        try {
+            notes = cassette.reserve(amount);
+            if (notes == 0) {
+                return failure(Status.CASH_UNAVAILABLE, "This ATM cannot dispense Rs." + Money.format(amount)
+                    + " right now. Please try a different amount.", account);
+            }
+            if (!requestLog.begin(requestId, RequestLog.Action.WITHDRAW, account.getAccountNumber(), amount)) {
+                return duplicate(requestId, account);
+            }
+            CrashPoint.reached("request.begun");
+            debited = ledger.debit(account, amount, requestId);
+            if (!debited) {
+                return finish(requestId, RequestLog.Action.WITHDRAW,
+                    failure(Status.INSUFFICIENT_FUNDS, "Insufficient balance!", account));
+            }
+            CrashPoint.reached("request.applied");
+            return finish(requestId, RequestLog.Action.WITHDRAW,
+                new Result(Status.OK, "Withdrawal Successful! Notes: " + CashCassette.describe(notes),
+                    amount, account.getBalance()));
+        } finally {
+            // Anything short of a debit, including an exception from the
+            // request log, journal or WAL, hands back the notes and the limit.
+            if (!debited) {
+                if (notes != 0) {
+                    cassette.release(notes);
+                }
+                withdrawalLimiter.release(account.getAccountNumber(), amount, now);
+            }
+        }
+    }
+
+    Result deposit(BankAccount account, long amount) {
+        return deposit(UUID.randomUUID(), account, amount);
+    }
+
+    Result deposit(UUID requestId, BankAccount account, long amount) {
+        return timed(Operation.DEPOSIT, () -> held(account, live -> attemptDeposit(requestId, live, amount)), Result::status);
+    }
+
+    private Result attemptDeposit(UUID requestId, BankAccount account, long amount) {
+        Result previous = previousOutcome(requestId);
+        if (previous != null) {
+            return previous;
+        }
+        if (amount < MIN_DEPOSIT_AMOUNT) {
+            return failure(Status.BELOW_MINIMUM, "Minimum deposit amount is Rs." + Money.format(MIN_DEPOSIT_AMOUNT), account);
+        } else if (amount > MAX_DEPOSIT_AMOUNT) {
+            return failure(Status.ABOVE_MAXIMUM, "Maximum deposit amount is Rs." + Money.format(MAX_DEPOSIT_AMOUNT), account);
+        }
+        if (!requestLog.begin(requestId, RequestLog.Action.DEPOSIT, account.getAccountNumber(), amount)) {
+            return duplicate(requestId, account);
+        }
+        CrashPoint.reached("request.begun");
+        ledger.credit(account, amount, requestId);
+        CrashPoint.reached("request.applied");
+        return finish(requestId, RequestLog.Action.DEPOSIT,
+            new Result(Status.OK, "Deposit Successful!", amount, account.getBalance()));
+    }
+
+    private Result previousOutcome(UUID requestId) {
+        RequestLog.Outcome outcome = requestLog.completed(requestId);
+        return outcome == null ? null
+            : new Result(outcome.status(), "Request already processed.", outcome.amount(), outcome.balance());
+    }
+
+    private Result duplicate(UUID requestId, BankAccount account) {
+        Result previous = previousOutcome(requestId);
+        return previous != null ? previous
+            : failure(Status.IN_PROGRESS, "This request is already being processed.", account);
+    }
+
+    // END is the point of no return: once it is durable the customer is
+    // told to collect the cash, and recovery will not touch the request.
+    private Result finish(UUID requestId, RequestLog.Action action, Result result) {
+        requestLog.end(requestId, action, result.status(), result.amount(), result.balance());
+        CrashPoint.reached("request.ended");
+        return result;
+    }
+
+    Result transfer(BankAccount account, String toAccountNumber, long amount) {
+        return timed(Operation.TRANSFER, () -> held(account, live -> attemptTransfer(live, toAccountNumber, amount)), Result::status);
+    }
+
+    private Result attemptTransfer(BankAccount account, String toAccountNumber, long amount) {
+        if (amount < MIN_TRANSFER_AMOUNT) {
+            return failure(Status.BELOW_MINIMUM, "Minimum transfer amount is Rs." + Money.format(MIN_TRANSFER_AMOUNT), account);
+        } else if (amount > MAX_TRANSFER_AMOUNT) {
+            return failure(Status.ABOVE_MAXIMUM, "Maximum transfer amount is Rs." + Money.format(MAX_TRANSFER_AMOUNT), account);
+        } else if (toAccountNumber.equals(account.getAccountNumber())) {
+            return failure(Status.SAME_ACCOUNT, "Cannot transfer to the same account!", account);
+        }
+        BankAccount destination = toAccountNumber.matches("[1-9]\\d{0,17}") ? ledger.acquire(toAccountNumber) : null;
+        if (destination == null) {
+            return failure(Status.UNKNOWN_ACCOUNT, "Destination account not found!", account);
+        }
+        try {
+            if (!ledger.transfer(account, destination, amount)) {
+                return failure(Status.INSUFFICIENT_FUNDS, "Insufficient balance!", account);
+            }
+        } finally {
+            ledger.release(destination);
+        }
+        return new Result(Status.OK, "Transfer Successful!", amount, account.getBalance());
+    }
+
+    Result changePin(String sessionId, BankAccount account, String currentPin, String newPin, String confirmPin) {
+        return timed(Operation.PIN_CHANGE, () -> held(account, live -> attemptChangePin(sessionId, live, currentPin, newPin, confirmPin)), Result::status);
+    }
+
+    private Result attemptChangePin(String sessionId, BankAccount account, String currentPin, String newPin, String confirmPin) {
+        // A locked account gets no more guesses here than at the login screen.
+        if (loginGuard.isLocked(account.getAccountNumber(), System.currentTimeMillis())) {
+            return failure(Status.LOCKED_OUT, "Too many failed attempts. Try again later.", account);
+        } else if (!pinVerifier.verify(sessionId, account, currentPin)) {
+            loginGuard.recordFailure(account.getAccountNumber(), System.currentTimeMillis());
+            fraudEngine.recordPinFailure(account.getAccountNumber(), System.currentTimeMillis());
+            return failure(Status.WRONG_PIN, "Current PIN is incorrect!", account);
+        } else if (newPin.length() != 4 || !newPin.matches("\\d+")) {
+            return failure(Status.INVALID_PIN, "PIN must be exactly 4 digits!", account);
+        } else if (!newPin.equals(confirmPin)) {
+            return failure(Status.PIN_MISMATCH, "New PINs do not match!", account);
+        }
+        ledger.changePin(account, PinHasher.hash(newPin));
+        return new Result(Status.OK, "PIN changed successfully!", 0, account.getBalance());
+    }
+
+    long dailyLimit() {
+        return withdrawalLimiter.limit();
+    }
+
+    long remainingDailyLimit(BankAccount account) {
+        return withdrawalLimiter.remaining(account.getAccountNumber(), System.currentTimeMillis());
+    }
+
+    List<TransactionJournal.Entry> statement(BankAccount account, int limit) {
+        int count = Math.max(1, Math.min(limit, MAX_STATEMENT_PAGE));
+        return timed(Operation.STATEMENT, () -> ledger.recentTransactions(account, count), entries -> Status.OK);
+    }
+
+    // One page of history, newest first; page.next() is the 'before' of the
+    // following (older) page.
+    TransactionJournal.Page statement(BankAccount account, TransactionJournal.Filter filter, int before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_STATEMENT_PAGE));
+        return timed(Operation.STATEMENT, () -> ledger.transactions(account, filter, before, pageSize), page -> Status.OK);
+    }
+
+    // Writes the whole filtered history as CSV, one page at a time, so only
+    // a page of entries is ever held in memory. Returns the rows written.
+    long exportStatement(BankAccount account, TransactionJournal.Filter filter, Appendable out) throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        out.append("time,type,amount,balance\n");
+        long rows = 0;
+        int before = TransactionJournal.NEWEST;
+        do {
+            TransactionJournal.Page page = ledger.transactions(account, filter, before, MAX_STATEMENT_PAGE);
+            for (TransactionJournal.Entry entry : page.entries()) {
+                out.append(EXPORT_TIME.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timestamp()), zone)))
+                    .append(',').append(entry.type().name())
+                    .append(',').append(Money.format(entry.amount()))
+                    .append(',').append(Money.format(entry.balanceAfter()))
+                    .append('\n');
+            }
+            rows += page.entries().size();
+            before = page.next();
+        } while (before > 0);
+        return rows;
+    }
+
+    String cacheStats() {
+        AccountCache cache = ledger.cache();
+        return "hits=%d misses=%d hitRate=%.4f evictions=%d cached=%d dirty=%d flushes=%d lastFlushMs=%.3f maxFlushMs=%.3f".formatted(
+            cache.hits(), cache.misses(), cache.hitRate(), cache.evictions(), cache.size(),
+            writeBehind.dirtyCount(), writeBehind.flushCount(),
+            writeBehind.lastFlushNanos() / 1e6, writeBehind.maxFlushNanos() / 1e6);
+    }
+
+    OperationMetrics metrics() {
+        return metrics;
+    }
+
+    // Operation metrics plus cache and write-behind gauges, in Prometheus
+    // text format.
+    String metricsText() {
+        StringBuilder out = new StringBuilder(8192);
+        metrics.writePrometheus(out);
+        fraudEngine.writePrometheus(out);
+        AccountCache cache = ledger.cache();
+        gauge(out, "atm_cache_hits_total", "counter", cache.hits());
+        gauge(out, "atm_cache_misses_total", "counter", cache.misses());
+        gauge(out, "atm_cache_evictions_total", "counter", cache.evictions());
+        gauge(out, "atm_cache_entries", "gauge", cache.size());
+        gauge(out, "atm_write_behind_dirty_accounts", "gauge", writeBehind.dirtyCount());
+        gauge(out, "atm_write_behind_flushes_total", "counter", writeBehind.flushCount());
+        gauge(out, "atm_write_behind_last_flush_seconds", "gauge", writeBehind.lastFlushNanos() / 1e9);
+        gauge(out, "atm_write_behind_max_flush_seconds", "gauge", writeBehind.maxFlushNanos() / 1e9);
+        long notes = cassette.available();
+        out.append("# TYPE atm_cassette_notes gauge\n");
+        for (int i = 0; i < CashCassette.DENOMINATIONS.length; i++) {
+            out.append("atm_cassette_notes{denomination=\"").append(CashCassette.DENOMINATIONS[i]).append("\"} ")
+                .append(CashCassette.count(notes, i)).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void gauge(StringBuilder out, String name, String type, Number value) {
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n')
+            .append(name).append(' ').append(value).append('\n');
+    }
+
+    // Starts the loopback /metrics endpoint; port 0 picks a free port.
+    MetricsEndpoint exposeMetrics(int port) {
+        MetricsEndpoint endpoint = MetricsEndpoint.start(port, this::metricsText);
+        metricsEndpoint = endpoint;
+        return endpoint;
+    }
+
+    private <T> T timed(Operation operation, Supplier<T> body, Function<T, Status> outcome) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = body.get();
+        } catch (RuntimeException e) {
+            metrics.recordError(operation, System.nanoTime() - start);
+            throw e;
+        }
+        metrics.record(operation, outcome.apply(result), System.nanoTime() - start);
+        return result;
+    }
+
+    private static Result failure(Status status, String message, BankAccount account) {
+        return new Result(status, message, 0, account.getBalance());
+    }
+
+    @Override
+    public void close() {
+        if (metricsEndpoint != null) {
+            metricsEndpoint.close();
+        }
+        pinVerifier.close();
+        writeBehind.close();
+        requestLog.close();
+        journal.close();
+        repository.close();
+        if (storeLock != null) {
+            storeLock.close();
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package atm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Coalesces balance changes in memory and writes them to the repository in
+// periodic batches. Every change is first appended to a small write-ahead
+// segment (<base>.<generation>) so nothing acknowledged is lost if the
+// process dies before the flush. A flush commits one generation together
+// with its number; on startup, segments newer than the committed generation
+// are replayed and older ones are discarded.
+//
+// Changes made on behalf of a RequestLog request carry its id, so recovery
+// can tell whether an in-flight request's change reached the log, and the
+// flush listener hears which requests a batch contained before its segment
+// is deleted.
+final class BalanceWriteBehind implements AutoCloseable {
+
+    private static final int REQUEST_ID = 0x80;
+
+    private final AccountRepository repository;
+    private final Path base;
+    private final ScheduledExecutorService flusher;
+    private final long flushIntervalMillis;
+    private final Object syncLock = new Object();
+    private final Object flushLock = new Object();
+
+    private Map<String, Long> pending = new HashMap<>();
+    private Map<String, Long> flushing = Map.of();
+    private List<UUID> pendingRequests = new ArrayList<>();
+    private List<UUID> flushingRequests = List.of();
+    private final Set<UUID> recoveredRequests = new HashSet<>();
+    private final List<Path> recoveredSegments = new ArrayList<>();
+    private volatile Consumer<Collection<UUID>> flushListener = ids -> { };
+    private long flushingGeneration;
+    private FileChannel segment;
+    private long generation;
+    private long written;
+    private volatile long synced;
+
+    private long flushes;
+    private long lastFlushNanos;
+    private long maxFlushNanos;
+
+    BalanceWriteBehind(AccountRepository repository, Path base, long flushIntervalMillis) {
+        this.repository = repository;
+        this.base = base.toAbsolutePath();
+        this.generation = recover() + 1;
+        this.segment = openSegment(generation);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "balance-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Called once the owner has finished its own recovery. Until then the
+    // replayed segments are kept and nothing is flushed, so a crash during
+    // that recovery still finds every request id on the next start.
+    void start() {
+        try {
+            for (Path file : recoveredSegments) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot remove replayed write-ahead segment", e);
+        }
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void record(String accountNumber, long delta) {
+        append(null, accountNumber, delta, null, 0);
+    }
+
+    void record(UUID requestId, String accountNumber, long delta) {
+        append(requestId, accountNumber, delta, null, 0);
+    }
+
+    // Both legs of a transfer land in the same segment write and therefore
+    // in the same flushed generation.
+    void record(String firstAccount, long firstDelta, String secondAccount, long secondDelta) {
+        append(null, firstAccount, firstDelta, secondAccount, secondDelta);
+    }
+
+    private void append(UUID requestId, String firstAccount, long firstDelta, String secondAccount, long secondDelta) {
+        ByteBuffer buffer = ByteBuffer.allocate(96);
+        encode(buffer, firstAccount, firstDelta, requestId);
+        if (secondAccount != null) {
+            encode(buffer, secondAccount, secondDelta, null);
+        }
+        buffer.flip();
+        long sequence;
+        synchronized (this) {
+            try {
+                while (buffer.hasRemaining()) {
+                    segment.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot append to balance write-ahead log", e);
+            }
+            pending.merge(firstAccount, firstDelta, Long::sum);
+            if (requestId != null) {
+                pendingRequests.add(requestId);
+            }
+            if (secondAccount != null) {
+                pending.merge(secondAccount, secondDelta, Long::sum);
+            }
+            sequence = ++written;
+        }
+        sync(sequence);
+    }
+
+    // Group commit: whoever gets the lock forces everything written so far,
+    // and writers whose records were covered by that force return at once.
+    private void sync(long sequence) {
+        if (synced >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= sequence) {
+                return;
+            }
+            long upTo;
+            FileChannel current;
+            synchronized (this) {
+                upTo = written;
+                current = segment;
+            }
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot sync balance write-ahead log", e);
+            }
+            synced = upTo;
+        }
+    }
+
+    synchronized boolean isDirty(String accountNumber) {
+        return pending.containsKey(accountNumber) || flushing.containsKey(accountNumber);
+    }
+
+    synchronized int dirtyCount() {
+        return pending.size() + flushing.size();
+    }
+
+    synchronized long flushCount() {
+        return flushes;
+    }
+
+    synchronized long lastFlushNanos() {
+        return lastFlushNanos;
+    }
+
+    synchronized long maxFlushNanos() {
+        return maxFlushNanos;
+    }
+
+    // A batch that fails to apply stays in 'flushing' under its original
+    // generation and is retried as-is on the next flush, so its deltas can
+    // never be committed twice.
+    void flush() {
+        synchronized (flushLock) {
+            long start = System.nanoTime();
+            if (flushing.isEmpty() && !rotate()) {
+                return;
+            }
+            repository.applyBalanceChanges(flushing, flushingGeneration);
+            CrashPoint.reached("flush.applied");
+            if (!flushingRequests.isEmpty()) {
+                flushListener.accept(flushingRequests);
+            }
+            CrashPoint.reached("flush.marked");
+            try {
+                Files.deleteIfExists(segmentPath(flushingGeneration));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot remove flushed write-ahead segment", e);
+            }
+            long elapsed = System.nanoTime() - start;
+            synchronized (this) {
+                flushing = Map.of();
+                flushingRequests = List.of();
+                flushes++;
+                lastFlushNanos = elapsed;
+                maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+            }
+        }
+    }
+
+    private boolean rotate() {
+        synchronized (syncLock) {
+            FileChannel closing;
+            long upTo;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return false;
+                }
+                flushing = pending;
+                flushingGeneration = generation;
+                flushingRequests = pendingRequests;
+                pending = new HashMap<>();
+                pendingRequests = new ArrayList<>();
+                closing = segment;
+                upTo = written;
+                generation++;
+                segment = openSegment(generation);
+            }
+            try {
+                closing.force(false);
+                closing.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close balance write-ahead segment", e);
+            }
+            synced = Math.max(synced, upTo);
+            return true;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Balance flush failed, will retry: " + e.getMessage());
+        }
+    }
+
+    private long recover() {
+        long applied = repository.appliedGeneration();
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        String prefix = base.getFileName() + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(base.getParent(), prefix + "*")) {
+            for (Path file : files) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                    segments.put(Long.parseLong(suffix), file);
+                }
+            }
+            long last = applied;
+            for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+                Map<String, Long> deltas = readSegment(entry.getValue(), recoveredRequests);
+                if (entry.getKey() > applied) {
+                    repository.applyBalanceChanges(deltas, entry.getKey());
+                }
+                last = Math.max(last, entry.getKey());
+                recoveredSegments.add(entry.getValue());
+            }
+            return last;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover balance write-ahead log", e);
+        }
+    }
+
+    // Record: account number length, account number bytes, delta, and a
+    // request id when the length byte has its REQUEST_ID bit set. A torn
+    // record at the end of a segment is ignored.
+    private static void encode(ByteBuffer buffer, String accountNumber, long delta, UUID requestId) {
+        byte[] number = accountNumber.getBytes(StandardCharsets.US_ASCII);
+        buffer.put((byte) (number.length | (requestId != null ? REQUEST_ID : 0))).put(number).putLong(delta);
+        if (requestId != null) {
+            buffer.putLong(requestId.getMostSignificantBits()).putLong(requestId.getLeastSignificantBits());
+        }
+    }
+
+    private static Map<String, Long> readSegment(Path file, Set<UUID> requests) throws IOException {
+        Map<String, Long> deltas = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (buffer.remaining() > 0) {
+            int header = buffer.get() & 0xFF;
+            int length = header & ~REQUEST_ID;
+            boolean tagged = (header & REQUEST_ID) != 0;
+            if (length == 0 || buffer.remaining() < length + Long.BYTES + (tagged ? 2 * Long.BYTES : 0)) {
+                break;
+            }
+            byte[] number = new byte[length];
+            buffer.get(number);
+            deltas.merge(new String(number, StandardCharsets.US_ASCII), buffer.getLong(), Long::sum);
+            if (tagged) {
+                requests.add(new UUID(buffer.getLong(), buffer.getLong()));
+            }
+        }
+        return deltas;
+    }
+
+    // Ids of requests whose changes were found in write-ahead segments at
+    // startup, whether or not those segments had already been applied.
+    Set<UUID> recoveredRequests() {
+        return recoveredRequests;
+    }
+
+    void onFlushed(Consumer<Collection<UUID>> listener) {
+        flushListener = listener;
+    }
+
+    private Path segmentPath(long segmentGeneration) {
+        return base.resolveSibling(base.getFileName() + "." + segmentGeneration);
+    }
+
+    private FileChannel openSegment(long segmentGeneration) {
+        try {
+            return FileChannel.open(segmentPath(segmentGeneration),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open balance write-ahead segment", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        synchronized (this) {
+            try {
+                segment.close();
+                if (pending.isEmpty()) {
+                    Files.deleteIfExists(segmentPath(generation));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close balance write-ahead log", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package atm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Balances and amounts are held in paise; see Money for parsing and formatting.
+class BankAccount {
+    private final String accountNumber;
+    private final String accountHolderName;
+    private final AtomicLong balance;
+    private volatile String pinHash;
+    
+    public BankAccount(String accountNumber, String accountHolderName, long initialBalance, String pinHash) {
+        this.accountNumber = accountNumber;
+        this.accountHolderName = accountHolderName;
+        this.balance = new AtomicLong(initialBalance);
+        this.pinHash = pinHash;
+    }
+  
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+    
+    public String getAccountHolderName() {
+        return accountHolderName;
+    }
+    
+    public long getBalance() {
+        return balance.get();
+    }
+    
+    public String getPinHash() {
+        return pinHash;
+    }
+    
+    public void setPinHash(String pinHash) {
+        this.pinHash = pinHash;
+    }
+ 
+    public boolean deposit(long amount) {
+        return credit(amount) >= 0;
+    }
+
+    public boolean withdraw(long amount) {
+        return debit(amount) >= 0;
+    }
+
+    // As deposit/withdraw, but return the balance this change produced, or
+    // -1 if it was refused; a later getBalance() may include other changes.
+    long credit(long amount) {
+        return amount > 0 ? balance.addAndGet(amount) : -1;
+    }
+
+    long debit(long amount) {
+        if (amount <= 0) {
+            return -1;
+        }
+        long current;
+        do {
+            current = balance.get();
+            if (amount > current) {
+                return -1;
+            }
+        } while (!balance.compareAndSet(current, current - amount));
+        return current - amount;
+    }
+    
+    public boolean hasSufficientBalance(long amount) {
+        return balance.get() >= amount;
+    }
+}
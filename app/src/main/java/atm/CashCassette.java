@@ -0,0 +1,146 @@
+package atm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Note inventory of one terminal. The counts of all four denominations are
+// packed into a single long (16 bits each), so choosing a note mix and
+// taking it out of the cassettes is one compare-and-set: concurrent
+// withdrawals never block each other and can never dispense the same
+// notes twice.
+//
+// A mix is returned in the same packed form. 0 means the amount cannot be
+// paid from what is loaded.
+final class CashCassette {
+
+    // Rupees, largest first; field i of a packed value counts DENOMINATIONS[i].
+    static final int[] DENOMINATIONS = {2000, 500, 200, 100};
+    static final int MAX_NOTES = 0xFFFF;
+    static final String DEFAULT_LOAD = "2000:1000,500:2000,200:2000,100:2000";
+
+    private static final int BITS = 16;
+
+    private final AtomicLong notes;
+
+    CashCassette(long loaded) {
+        this.notes = new AtomicLong(loaded);
+    }
+
+    // "2000:1000,500:2000,..."; denominations that are left out are empty.
+    static CashCassette parse(String spec) {
+        int[] counts = new int[DENOMINATIONS.length];
+        for (String slot : spec.split(",")) {
+            String[] parts = slot.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cassette slot must be <denomination>:<count>: " + slot);
+            }
+            counts[index(Integer.parseInt(parts[0]))] = Integer.parseInt(parts[1]);
+        }
+        return new CashCassette(pack(counts));
+    }
+
+    static CashCassette fromSystemProperties() {
+        return parse(System.getProperty("atm.cassettes", DEFAULT_LOAD));
+    }
+
+    static long pack(int... counts) {
+        long packed = 0;
+        for (int i = 0; i < DENOMINATIONS.length; i++) {
+            if (counts[i] < 0 || counts[i] > MAX_NOTES) {
+                throw new IllegalArgumentException("A cassette holds 0.." + MAX_NOTES + " notes, not " + counts[i]);
+            }
+            packed |= (long) counts[i] << shift(i);
+        }
+        return packed;
+    }
+
+    static int count(long packed, int i) {
+        return (int) (packed >>> shift(i)) & MAX_NOTES;
+    }
+
+    // Takes the notes for amount (in paise) out of the cassettes and returns
+    // the mix, or 0 without taking anything if it cannot be paid.
+    long reserve(long amount) {
+        if (amount % Money.ofRupees(1) != 0) {
+            return 0;
+        }
+        long rupees = amount / Money.ofRupees(1);
+        while (true) {
+            long available = notes.get();
+            long mix = plan(available, rupees);
+            if (mix == 0 || notes.compareAndSet(available, available - mix)) {
+                return mix;
+            }
+        }
+    }
+
+    // Puts a reserved mix back, e.g. when the debit that followed failed.
+    void release(long mix) {
+        load(mix);
+    }
+
+    void load(long added) {
+        while (true) {
+            long current = notes.get();
+            for (int i = 0; i < DENOMINATIONS.length; i++) {
+                if (count(current, i) + count(added, i) > MAX_NOTES) {
+                    throw new IllegalStateException("Rs." + DENOMINATIONS[i] + " cassette would exceed " + MAX_NOTES + " notes");
+                }
+            }
+            if (notes.compareAndSet(current, current + added)) {
+                return;
+            }
+        }
+    }
+
+    long available() {
+        return notes.get();
+    }
+
+    // Fewest large notes first. The 200s and 100s have a closed form: the
+    // most 200s that fit is best, since using fewer only needs more 100s.
+    // Above them, dropping one 500 (and any number of 2000s) can turn an
+    // odd remainder into one the 200s can pay, so both are searched; the
+    // search is at most two tries per possible 2000 count.
+    static long plan(long available, long rupees) {
+        if (rupees <= 0 || rupees % DENOMINATIONS[3] != 0) {
+            return 0;
+        }
+        long most2000 = Math.min(count(available, 0), rupees / DENOMINATIONS[0]);
+        for (long n2000 = most2000; n2000 >= 0; n2000--) {
+            long afterLarge = rupees - n2000 * DENOMINATIONS[0];
+            long most500 = Math.min(count(available, 1), afterLarge / DENOMINATIONS[1]);
+            for (long n500 = most500; n500 >= Math.max(0, most500 - 1); n500--) {
+                long rest = afterLarge - n500 * DENOMINATIONS[1];
+                long n200 = Math.min(count(available, 2), rest / DENOMINATIONS[2]);
+                long n100 = (rest - n200 * DENOMINATIONS[2]) / DENOMINATIONS[3];
+                if (n100 <= count(available, 3)) {
+                    return n2000 << shift(0) | n500 << shift(1) | n200 << shift(2) | n100 << shift(3);
+                }
+            }
+        }
+        return 0;
+    }
+
+    static String describe(long mix) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < DENOMINATIONS.length; i++) {
+            if (count(mix, i) > 0) {
+                sb.append(sb.isEmpty() ? "" : ", ").append(count(mix, i)).append(" x Rs.").append(DENOMINATIONS[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int index(int denomination) {
+        for (int i = 0; i < DENOMINATIONS.length; i++) {
+            if (DENOMINATIONS[i] == denomination) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No cassette for Rs." + denomination + " notes");
+    }
+
+    private static int shift(int i) {
+        return (DENOMINATIONS.length - 1 - i) * BITS;
+    }
+}
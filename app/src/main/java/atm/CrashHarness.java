@@ -0,0 +1,167 @@
+package atm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Kills a child JVM at every CrashPoint on the withdraw and deposit paths,
+// restarts the service on the files it left behind and checks that the
+// request was finished or undone exactly once: the balance is right, the
+// request log holds the expected outcome, and retrying the same request id
+// changes nothing.
+//
+//   java -cp atm.jar atm.CrashHarness
+final class CrashHarness {
+
+    private static final String ACCOUNT = "123456789";
+    private static final String PIN = "1234";
+    private static final long OPENING_BALANCE = Money.ofRupees(501);
+    private static final long AMOUNT = Money.ofRupees(100);
+    private static final String[] POINTS = {
+        "request.begun", "request.applied", "request.ended", "flush.applied", "flush.marked"
+    };
+
+    private record Case(String point, RequestLog.Action action) {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("child")) {
+            runChild(RequestLog.Action.valueOf(args[1]), UUID.fromString(args[2]));
+            return;
+        }
+        List<Case> cases = new ArrayList<>();
+        for (String point : POINTS) {
+            cases.add(new Case(point, RequestLog.Action.WITHDRAW));
+            cases.add(new Case(point, RequestLog.Action.DEPOSIT));
+        }
+        int failures = 0;
+        System.out.printf("%-16s %-9s %-9s %-12s %s%n", "point", "action", "status", "balance", "result");
+        for (Case c : cases) {
+            String problem = check(c);
+            if (problem != null) {
+                failures++;
+            }
+            System.out.println(problem == null ? "PASS" : "FAIL " + problem);
+        }
+        System.out.printf("%d of %d cases passed%n", cases.size() - failures, cases.size());
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static String check(Case c) throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("atm-crash");
+        try {
+            UUID requestId = UUID.randomUUID();
+            int exit = spawn(dir, c, requestId);
+            if (exit != CrashPoint.EXIT_CODE) {
+                System.out.printf("%-16s %-9s %-9s %-12s ", c.point(), c.action(), "-", "-");
+                return "child exited with " + exit + " before reaching the crash point";
+            }
+            setProperties(dir);
+            try (AtmService service = AtmService.openDefault()) {
+                BankAccount account = service.authenticate("harness", ACCOUNT, PIN).join().account();
+                long balance = service.balance(account);
+                AtmService.Result retry = c.action() == RequestLog.Action.WITHDRAW
+                    ? service.withdraw(requestId, account, AMOUNT)
+                    : service.deposit(requestId, account, AMOUNT);
+                System.out.printf("%-16s %-9s %-9s %-12s ", c.point(), c.action(), retry.status(), Money.format(balance));
+                AtmService.Status expectedStatus = expectedStatus(c);
+                long expectedBalance = expectedBalance(c, expectedStatus);
+                if (retry.status() != expectedStatus) {
+                    return "expected status " + expectedStatus;
+                }
+                if (balance != expectedBalance) {
+                    return "expected balance " + Money.format(expectedBalance);
+                }
+                if (service.balance(account) != balance) {
+                    return "retry changed the balance to " + Money.format(service.balance(account));
+                }
+                return null;
+            }
+        } finally {
+            delete(dir);
+        }
+    }
+
+    // Before the debit reached the write-ahead log there is nothing to undo;
+    // after it, but before END, no cash was handed out, so it is reversed.
+    // Deposits are always completed because the cash was already taken in.
+    private static AtmService.Status expectedStatus(Case c) {
+        if (c.action() == RequestLog.Action.DEPOSIT) {
+            return AtmService.Status.OK;
+        }
+        return switch (c.point()) {
+            case "request.begun" -> AtmService.Status.ABORTED;
+            case "request.applied" -> AtmService.Status.REVERSED;
+            default -> AtmService.Status.OK;
+        };
+    }
+
+    private static long expectedBalance(Case c, AtmService.Status status) {
+        if (status != AtmService.Status.OK) {
+            return OPENING_BALANCE;
+        }
+        return c.action() == RequestLog.Action.WITHDRAW ? OPENING_BALANCE - AMOUNT : OPENING_BALANCE + AMOUNT;
+    }
+
+    private static int spawn(Path dir, Case c, UUID requestId) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-Datm.crash.at=" + c.point());
+        for (String[] property : properties(dir)) {
+            command.add("-D" + property[0] + "=" + property[1]);
+        }
+        command.add(CrashHarness.class.getName());
+        command.add("child");
+        command.add(c.action().name());
+        command.add(requestId.toString());
+        Process child = new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        return child.waitFor();
+    }
+
+    // The flush points are reached by the write-behind flusher, so the child
+    // waits long enough for at least one flush after its request.
+    private static void runChild(RequestLog.Action action, UUID requestId) throws InterruptedException {
+        AtmService service = AtmService.openDefault();
+        BankAccount account = service.authenticate("harness", ACCOUNT, PIN).join().account();
+        if (action == RequestLog.Action.WITHDRAW) {
+            service.withdraw(requestId, account, AMOUNT);
+        } else {
+            service.deposit(requestId, account, AMOUNT);
+        }
+        Thread.sleep(5_000);
+    }
+
+    private static void setProperties(Path dir) {
+        for (String[] property : properties(dir)) {
+            System.setProperty(property[0], property[1]);
+        }
+    }
+
+    private static String[][] properties(Path dir) {
+        return new String[][] {
+            {"atm.db", dir.resolve("atm.db").toString()},
+            {"atm.journal", dir.resolve("atm.journal").toString()},
+            {"atm.wal", dir.resolve("atm.wal").toString()},
+            {"atm.requests", dir.resolve("atm.requests").toString()},
+            {"atm.flush.millis", "50"},
+        };
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
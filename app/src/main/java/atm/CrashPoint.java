@@ -0,0 +1,20 @@
+package atm;
+
+// Fault injection for recovery checks: with -Datm.crash.at=<point> the JVM
+// halts, without running shutdown hooks, the first time that point is
+// reached. CrashHarness drives every point in turn.
+final class CrashPoint {
+
+    static final int EXIT_CODE = 86;
+
+    private static final String TARGET = System.getProperty("atm.crash.at");
+
+    private CrashPoint() {
+    }
+
+    static void reached(String point) {
+        if (point.equals(TARGET)) {
+            Runtime.getRuntime().halt(EXIT_CODE);
+        }
+    }
+}
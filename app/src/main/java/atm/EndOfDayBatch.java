@@ -0,0 +1,218 @@
+package atm;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+// End-of-day interest and fee run over every account in the store.
+//
+//   java -cp atm.jar atm.EndOfDayBatch [yyyy-mm-dd]
+//
+// Interest accrues daily on positive balances at -Datm.eod.interest.bps
+// basis points a year (default 350). An account that starts the day below
+// -Datm.eod.minimum rupees (default 1000) pays -Datm.eod.fee rupees (default
+// 5), never more than it holds. The postings are written to a PostingLog
+// under -Datm.eod.postings (default "postings"), one directory per day; they
+// stay out of the transaction journal, which ten million accounts a day
+// would fill within months.
+//
+// It works on the store directly, behind the back of the service's balance
+// cache, so it holds the store's lock file for the whole run: it will not
+// start while an ATM has the store open, and no ATM can start until it is
+// done.
+//
+// The store's partitions are split across a fork-join pool
+// (-Datm.eod.threads, default one per core). Each partition is read, its
+// postings computed and written out, and then committed in one batch together
+// with a progress mark for the business date. Rerunning an interrupted day
+// skips the partitions already marked, and rerunning a finished day changes
+// nothing.
+final class EndOfDayBatch {
+
+    record Rates(int interestBasisPoints, long minimumBalance, long belowMinimumFee) {
+
+        private static final long BASIS_POINT_DAYS = 10_000L * 365;
+
+        static Rates fromSystemProperties() {
+            return new Rates(Integer.getInteger("atm.eod.interest.bps", 350),
+                Money.ofRupees(Long.getLong("atm.eod.minimum", 1000)),
+                Money.ofRupees(Long.getLong("atm.eod.fee", 5)));
+        }
+
+        // Rounded down to the paisa. Split so balance * rate cannot overflow.
+        long interest(long balance) {
+            if (balance <= 0) {
+                return 0;
+            }
+            return balance / BASIS_POINT_DAYS * interestBasisPoints
+                + balance % BASIS_POINT_DAYS * interestBasisPoints / BASIS_POINT_DAYS;
+        }
+
+        long fee(long balance, long interest) {
+            return balance < minimumBalance ? Math.min(belowMinimumFee, Math.max(0, balance + interest)) : 0;
+        }
+    }
+
+    record Report(LocalDate businessDate, int partitions, int alreadyDone, long accounts,
+                  long interestPaid, long feesCharged, long nanos) {
+
+        double accountsPerSecond() {
+            return nanos == 0 ? 0 : accounts / (nanos / 1e9);
+        }
+    }
+
+    private record Totals(long accounts, long interest, long fees) {
+
+        static final Totals NONE = new Totals(0, 0, 0);
+
+        Totals plus(Totals other) {
+            return new Totals(accounts + other.accounts, interest + other.interest, fees + other.fees);
+        }
+    }
+
+    private final AccountRepository repository;
+    private final Path postingRoot;
+    private final Rates rates;
+    private final ForkJoinPool pool;
+    private final LongAdder processed = new LongAdder();
+
+    EndOfDayBatch(AccountRepository repository, Path postingRoot, Rates rates, ForkJoinPool pool) {
+        this.repository = repository;
+        this.postingRoot = postingRoot;
+        this.rates = rates;
+        this.pool = pool;
+    }
+
+    static String batchId(LocalDate businessDate) {
+        return "eod-" + businessDate;
+    }
+
+    Report run(LocalDate businessDate) {
+        String batchId = batchId(businessDate);
+        int partitions = repository.partitionCount();
+        Set<Integer> done = repository.committedPartitions(batchId);
+        PostingLog postingLog = PostingLog.open(postingRoot, batchId);
+        long start = System.nanoTime();
+        Totals totals = pool.invoke(new PartitionRange(batchId, postingLog, done, 0, partitions));
+        return new Report(businessDate, partitions, done.size(), totals.accounts(), totals.interest(),
+            totals.fees(), System.nanoTime() - start);
+    }
+
+    // Accounts in partitions committed so far by this run.
+    long processedAccounts() {
+        return processed.sum();
+    }
+
+    private final class PartitionRange extends RecursiveTask<Totals> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String batchId;
+        private final PostingLog postingLog;
+        private final Set<Integer> done;
+        private final int from;
+        private final int to;
+
+        PartitionRange(String batchId, PostingLog postingLog, Set<Integer> done, int from, int to) {
+            this.batchId = batchId;
+            this.postingLog = postingLog;
+            this.done = done;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= 1) {
+                return from == to || done.contains(from) ? Totals.NONE : process(batchId, postingLog, from);
+            }
+            int middle = (from + to) >>> 1;
+            PartitionRange left = new PartitionRange(batchId, postingLog, done, from, middle);
+            left.fork();
+            Totals right = new PartitionRange(batchId, postingLog, done, middle, to).compute();
+            return left.join().plus(right);
+        }
+    }
+
+    // The postings file goes first: a crash before the commit leaves the
+    // partition unmarked, and the rerun writes the same file again.
+    private Totals process(String batchId, PostingLog postingLog, int partition) {
+        Map<String, Long> deltas = new HashMap<>();
+        List<PostingLog.Posting> postings = new ArrayList<>();
+        long[] sums = new long[3];
+        repository.forEachBalance(partition, (accountNumber, balance) -> {
+            long interest = rates.interest(balance);
+            long fee = rates.fee(balance, interest);
+            if (interest != fee) {
+                deltas.put(accountNumber, interest - fee);
+            }
+            if (interest > 0) {
+                postings.add(new PostingLog.Posting(accountNumber, PostingLog.Kind.INTEREST, interest, balance + interest));
+            }
+            if (fee > 0) {
+                postings.add(new PostingLog.Posting(accountNumber, PostingLog.Kind.FEE, fee, balance + interest - fee));
+            }
+            sums[0]++;
+            sums[1] += interest;
+            sums[2] += fee;
+        });
+        postingLog.write(partition, postings);
+        // Someone else finished this partition since the run started.
+        if (!repository.commitPartition(batchId, partition, deltas)) {
+            return Totals.NONE;
+        }
+        processed.add(sums[0]);
+        return new Totals(sums[0], sums[1], sums[2]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if ("memory".equals(System.getProperty("atm.store"))) {
+            System.err.println("EndOfDayBatch works on the SQLite store; the in-memory store does not outlive the ATM");
+            System.exit(2);
+        }
+        LocalDate businessDate = args.length > 0 ? LocalDate.parse(args[0]) : LocalDate.now();
+        String database = System.getProperty("atm.db", "atm.db");
+        // Replays unflushed balance changes and settles interrupted requests
+        // so the day's postings see final balances. It fails if an ATM is
+        // running; one that starts before the lock below is taken makes
+        // that fail instead.
+        AtmService.openDefault().close();
+
+        StoreLock lock = StoreLock.acquire(StoreLock.forStore(database));
+        ForkJoinPool pool = new ForkJoinPool(Integer.getInteger("atm.eod.threads",
+            Runtime.getRuntime().availableProcessors()));
+        try (SqliteAccountRepository repository = SqliteAccountRepository.open(database)) {
+            EndOfDayBatch batch = new EndOfDayBatch(repository, PostingLog.defaultRoot(), Rates.fromSystemProperties(), pool);
+            Thread progress = new Thread(() -> {
+                try {
+                    while (true) {
+                        Thread.sleep(5_000);
+                        System.out.printf("... %d accounts%n", batch.processedAccounts());
+                    }
+                } catch (InterruptedException e) {
+                    // run finished
+                }
+            }, "eod-progress");
+            progress.setDaemon(true);
+            progress.start();
+            Report report = batch.run(businessDate);
+            progress.interrupt();
+            double seconds = report.nanos() / 1e9;
+            System.out.printf("%s: %d partitions (%d already done), %d accounts in %.1fs (%.0f accounts/s)%n",
+                report.businessDate(), report.partitions(), report.alreadyDone(), report.accounts(), seconds,
+                report.accountsPerSecond());
+            System.out.printf("interest paid Rs.%s, fees charged Rs.%s%n",
+                Money.format(report.interestPaid()), Money.format(report.feesCharged()));
+        } finally {
+            pool.shutdown();
+            lock.close();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package atm;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Runs the fraud rules inline on every withdrawal. Each account has its own
+// AccountActivity and lock, so checks on different accounts never wait for
+// each other. An admitted withdrawal counts as in flight until settle()
+// reports whether it was paid; only paid ones enter the history, so
+// attempts refused later for the daily limit, missing notes or funds do
+// not count against the customer.
+//
+// Accounts with nothing in flight and no activity for idleMillis are
+// dropped by a sweep that starts once the map has doubled since the last
+// one, on the common pool so no withdrawal waits for it. Time is whatever
+// the callers pass in, so a replay sweeps by the stream's own clock.
+final class FraudEngine {
+
+    private static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+    private static final int MIN_SWEEP_SIZE = 4096;
+
+    private final List<FraudRule> rules;
+    private final long idleMillis;
+    private final ConcurrentHashMap<String, AccountActivity> activities = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile int sweepAt = MIN_SWEEP_SIZE;
+    private final LongAdder[] declines;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    // idleMillis is raised to the longest rule window if it is shorter.
+    FraudEngine(List<FraudRule> rules, long idleMillis) {
+        this.rules = List.copyOf(rules);
+        long longest = idleMillis;
+        for (FraudRule rule : this.rules) {
+            longest = Math.max(longest, rule.windowMillis());
+        }
+        this.idleMillis = longest;
+        this.declines = new LongAdder[this.rules.size()];
+        for (int i = 0; i < declines.length; i++) {
+            declines[i] = new LongAdder();
+        }
+    }
+
+    // The rules from FraudRule.fromSystemProperties(); -Datm.fraud.idle.hours
+    // (default 24) sets how long an idle account's activity is kept.
+    static FraudEngine fromSystemProperties() {
+        return new FraudEngine(FraudRule.fromSystemProperties(), Long.getLong("atm.fraud.idle.hours", 24) * 3_600_000L);
+    }
+
+    // Returns the name of the rule that declined the withdrawal, or null if
+    // it may go ahead. Every admitted withdrawal must be followed by settle().
+    String admit(String accountNumber, long amount, long nowMillis) {
+        long start = System.nanoTime();
+        int declinedBy = locked(accountNumber, nowMillis, activity -> {
+            for (int i = 0; i < rules.size(); i++) {
+                if (rules.get(i).flags(activity, amount, nowMillis)) {
+                    return i;
+                }
+            }
+            activity.beginWithdrawal();
+            return -1;
+        });
+        latency.record(System.nanoTime() - start);
+        if (declinedBy < 0) {
+            admitted.increment();
+            return null;
+        }
+        declines[declinedBy].increment();
+        return rules.get(declinedBy).name();
+    }
+
+    // Ends an admitted withdrawal; it enters the history only if paid.
+    void settle(String accountNumber, long amount, long nowMillis, boolean paid) {
+        locked(accountNumber, nowMillis, activity -> {
+            activity.endWithdrawal(amount, nowMillis, paid);
+            return null;
+        });
+    }
+
+    void recordPinFailure(String accountNumber, long nowMillis) {
+        locked(accountNumber, nowMillis, activity -> {
+            activity.recordPinFailure(nowMillis);
+            return null;
+        });
+    }
+
+    // Runs action under the account's lock, on an activity the sweep has
+    // not retired in the meantime.
+    private <T> T locked(String accountNumber, long nowMillis, Function<AccountActivity, T> action) {
+        while (true) {
+            AccountActivity activity = activities.get(accountNumber);
+            if (activity == null) {
+                activity = activities.computeIfAbsent(accountNumber, key -> new AccountActivity());
+                maybeSweep(nowMillis);
+            }
+            synchronized (activity) {
+                if (!activity.retired()) {
+                    return action.apply(activity);
+                }
+            }
+        }
+    }
+
+    private void maybeSweep(long nowMillis) {
+        if (activities.size() < sweepAt || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        ForkJoinPool.commonPool().execute(() -> {
+            try {
+                sweep(nowMillis - idleMillis);
+                sweepAt = Math.max(MIN_SWEEP_SIZE, activities.size() * 2);
+            } finally {
+                sweeping.set(false);
+            }
+        });
+    }
+
+    // Drops every account idle since fromMillis; returns how many.
+    int sweep(long fromMillis) {
+        int removed = 0;
+        for (Map.Entry<String, AccountActivity> entry : activities.entrySet()) {
+            AccountActivity activity = entry.getValue();
+            synchronized (activity) {
+                if (activity.idleSince(fromMillis)) {
+                    activity.retire();
+                    activities.remove(entry.getKey(), activity);
+                    removed++;
+                }
+            }
+        }
+        evicted.add(removed);
+        return removed;
+    }
+
+    List<FraudRule> rules() {
+        return rules;
+    }
+
+    long admitted() {
+        return admitted.sum();
+    }
+
+    long declined(int rule) {
+        return declines[rule].sum();
+    }
+
+    int trackedAccounts() {
+        return activities.size();
+    }
+
+    long evicted() {
+        return evicted.sum();
+    }
+
+    LatencyHistogram latency() {
+        return latency;
+    }
+
+    void writePrometheus(StringBuilder out) {
+        out.append("# HELP atm_fraud_declines_total Withdrawals declined, by the rule that flagged them.\n");
+        out.append("# TYPE atm_fraud_declines_total counter\n");
+        for (int i = 0; i < rules.size(); i++) {
+            out.append("atm_fraud_declines_total{rule=\"").append(rules.get(i).name()).append("\"} ")
+                .append(declines[i].sum()).append('\n');
+        }
+        out.append("# HELP atm_fraud_evaluation_seconds Time to run the fraud rules on one withdrawal.\n");
+        out.append("# TYPE atm_fraud_evaluation_seconds summary\n");
+        for (double quantile : QUANTILES) {
+            out.append("atm_fraud_evaluation_seconds{quantile=\"").append(quantile).append("\"} ")
+                .append(String.format(Locale.ROOT, "%.9f", latency.quantile(quantile) / 1e9)).append('\n');
+        }
+        out.append("atm_fraud_evaluation_seconds_count ").append(latency.count()).append('\n');
+        out.append("# TYPE atm_fraud_tracked_accounts gauge\n");
+        out.append("atm_fraud_tracked_accounts ").append(activities.size()).append('\n');
+        out.append("# TYPE atm_fraud_evicted_accounts_total counter\n");
+        out.append("atm_fraud_evicted_accounts_total ").append(evicted.sum()).append('\n');
+    }
+}
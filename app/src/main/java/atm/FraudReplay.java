@@ -0,0 +1,144 @@
+package atm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Runs a recorded stream of withdrawals and failed PINs through the fraud
+// rules on one thread and reports evaluations per second, declines per rule
+// and the latency of each evaluation.
+//
+//   java -cp atm.jar atm.FraudReplay <atm.journal>
+//   java -cp atm.jar atm.FraudReplay --synthetic [events] [accounts]
+//
+// A journal replays its DEBIT records, which are the withdrawals that were
+// paid out: each one the rules admit is settled as paid, as AtmService does
+// after a successful debit. The journal does not record failed PINs, so the
+// synthetic stream is the one that exercises every rule: steady per-account
+// withdrawals with occasional bursts, amount spikes and runs of wrong PINs,
+// every admitted one paid. The rules are configured as in AtmService
+// (atm.fraud.*).
+final class FraudReplay {
+
+    // Events in time order. An amount of 0 marks a failed PIN.
+    private static final class Stream {
+        String[] accountNumbers;
+        int[] accounts = new int[1024];
+        long[] times = new long[1024];
+        long[] amounts = new long[1024];
+        int size;
+
+        void add(int account, long time, long amount) {
+            if (size == accounts.length) {
+                accounts = Arrays.copyOf(accounts, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            accounts[size] = account;
+            times[size] = time;
+            amounts[size] = amount;
+            size++;
+        }
+    }
+
+    private static final long[] USUAL_RUPEES = {500, 1000, 2000, 3000, 5000};
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("usage: FraudReplay <journal> | --synthetic [events] [accounts]");
+            System.exit(2);
+        }
+        Stream stream;
+        if (args[0].equals("--synthetic")) {
+            stream = synthetic(args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000,
+                args.length > 2 ? Integer.parseInt(args[2]) : 10_000, new Random(42));
+        } else {
+            Path path = Path.of(args[0]);
+            if (!Files.exists(path)) {
+                System.err.println("No journal at " + path);
+                System.exit(2);
+            }
+            stream = fromJournal(path);
+        }
+
+        FraudEngine engine = FraudEngine.fromSystemProperties();
+        long evaluations = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < stream.size; i++) {
+            String account = stream.accountNumbers[stream.accounts[i]];
+            if (stream.amounts[i] == 0) {
+                engine.recordPinFailure(account, stream.times[i]);
+            } else {
+                if (engine.admit(account, stream.amounts[i], stream.times[i]) == null) {
+                    engine.settle(account, stream.amounts[i], stream.times[i], true);
+                }
+                evaluations++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        LatencyHistogram latency = engine.latency();
+        System.out.printf("events=%d evaluations=%d elapsed=%.2fs throughput=%.0f evaluations/s%n",
+            stream.size, evaluations, seconds, evaluations / seconds);
+        System.out.printf("latency p50=%.2fus p99=%.2fus p99.9=%.2fus max=%.2fus%n",
+            latency.quantile(0.5) / 1e3, latency.quantile(0.99) / 1e3, latency.quantile(0.999) / 1e3,
+            latency.max() / 1e3);
+        System.out.printf("accounts=%d evicted=%d admitted=%d", engine.trackedAccounts(), engine.evicted(), engine.admitted());
+        for (int rule = 0; rule < engine.rules().size(); rule++) {
+            System.out.printf(" %s=%d", engine.rules().get(rule).name(), engine.declined(rule));
+        }
+        System.out.println();
+    }
+
+    private static Stream fromJournal(Path path) {
+        Map<String, Integer> indexes = new HashMap<>();
+        Stream stream = new Stream();
+        try (TransactionJournal journal = TransactionJournal.open(path)) {
+            journal.forEach((accountNumber, entry) -> {
+                if (entry.type() == TransactionJournal.Type.DEBIT) {
+                    stream.add(indexes.computeIfAbsent(accountNumber, key -> indexes.size()),
+                        entry.timestamp(), entry.amount());
+                }
+            });
+        }
+        stream.accountNumbers = new String[indexes.size()];
+        indexes.forEach((number, index) -> stream.accountNumbers[index] = number);
+        return stream;
+    }
+
+    // On average one event every 5ms across all accounts, so a typical
+    // account withdraws a few times an hour and only the injected bursts
+    // and spikes stand out.
+    private static Stream synthetic(int events, int accountCount, Random random) {
+        String[] numbers = new String[accountCount];
+        long[] usual = new long[accountCount];
+        for (int a = 0; a < accountCount; a++) {
+            numbers[a] = String.valueOf(100_000_000L + a);
+            usual[a] = Money.ofRupees(USUAL_RUPEES[random.nextInt(USUAL_RUPEES.length)]);
+        }
+        Stream stream = new Stream();
+        stream.accountNumbers = numbers;
+        long time = System.currentTimeMillis() - events * 5L;
+        while (stream.size < events) {
+            time += 1 + random.nextInt(9);
+            int account = random.nextInt(accountCount);
+            int roll = random.nextInt(1000);
+            if (roll < 20) {
+                stream.add(account, time, 0);
+            } else if (roll < 30) {
+                // burst: several withdrawals a few seconds apart
+                for (int i = 0; i < 8 && stream.size < events; i++) {
+                    stream.add(account, time + i * 3_000L, usual[account]);
+                }
+            } else if (roll < 60) {
+                stream.add(account, time, Math.min(AtmService.MAX_WITHDRAWAL_AMOUNT, usual[account] * 8));
+            } else {
+                stream.add(account, time, usual[account]);
+            }
+        }
+        return stream;
+    }
+}
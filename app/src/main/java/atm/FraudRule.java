@@ -0,0 +1,97 @@
+package atm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One check a withdrawal must pass. Rules run in order under the account's
+// activity lock and must only read the activity; the first rule that flags
+// a withdrawal declines it. New rules implement this interface and are
+// added to the list given to FraudEngine.
+interface FraudRule {
+
+    String name();
+
+    boolean flags(AccountActivity activity, long amount, long nowMillis);
+
+    // How far back the rule looks. FraudEngine keeps an idle account's
+    // activity at least this long.
+    long windowMillis();
+
+    // More than maxWithdrawals in the window. The activity remembers only
+    // AccountActivity.WITHDRAWAL_SLOTS withdrawals, which bounds the limit.
+    record Velocity(int maxWithdrawals, long windowMillis) implements FraudRule {
+
+        public Velocity {
+            if (maxWithdrawals < 1 || maxWithdrawals >= AccountActivity.WITHDRAWAL_SLOTS) {
+                throw new IllegalArgumentException("Velocity limit must be 1.." + (AccountActivity.WITHDRAWAL_SLOTS - 1));
+            }
+        }
+
+        @Override
+        public String name() {
+            return "velocity";
+        }
+
+        @Override
+        public boolean flags(AccountActivity activity, long amount, long nowMillis) {
+            return activity.withdrawalsSince(nowMillis - windowMillis) >= maxWithdrawals;
+        }
+    }
+
+    // An amount more than factor times the account's running average, once
+    // there is enough history for the average to mean something.
+    record AmountSpike(int factor, int minSamples) implements FraudRule {
+
+        @Override
+        public String name() {
+            return "amount_spike";
+        }
+
+        // Judged against the running average, not a window. Dropping an idle
+        // account only restarts its average.
+        @Override
+        public long windowMillis() {
+            return 0;
+        }
+
+        @Override
+        public boolean flags(AccountActivity activity, long amount, long nowMillis) {
+            return activity.samples() >= minSamples && amount > activity.averageAmount() * factor;
+        }
+    }
+
+    // Large withdrawals right after repeated wrong PINs, whether or not the
+    // login eventually succeeded.
+    record FailedPins(int maxFailures, long windowMillis, long above) implements FraudRule {
+
+        @Override
+        public String name() {
+            return "failed_pins";
+        }
+
+        @Override
+        public boolean flags(AccountActivity activity, long amount, long nowMillis) {
+            return amount > above && activity.pinFailuresSince(nowMillis - windowMillis) >= maxFailures;
+        }
+    }
+
+    // -Datm.fraud.rules picks and orders the rules (default all three; empty
+    // turns the engine off); the other atm.fraud.* properties tune them.
+    static List<FraudRule> fromSystemProperties() {
+        List<FraudRule> rules = new ArrayList<>();
+        for (String name : System.getProperty("atm.fraud.rules", "velocity,amount_spike,failed_pins").split(",")) {
+            switch (name.trim()) {
+                case "" -> { }
+                case "velocity" -> rules.add(new Velocity(Integer.getInteger("atm.fraud.velocity.count", 5),
+                    Integer.getInteger("atm.fraud.velocity.seconds", 60) * 1000L));
+                case "amount_spike" -> rules.add(new AmountSpike(Integer.getInteger("atm.fraud.spike.factor", 5),
+                    Integer.getInteger("atm.fraud.spike.samples", 3)));
+                case "failed_pins" -> rules.add(new FailedPins(Integer.getInteger("atm.fraud.pin.failures", 2),
+                    Integer.getInteger("atm.fraud.pin.minutes", 15) * 60_000L,
+                    Money.ofRupees(Long.getLong("atm.fraud.pin.above", 2000))));
+                default -> throw new IllegalArgumentException("Unknown fraud rule " + name);
+            }
+        }
+        return rules;
+    }
+}
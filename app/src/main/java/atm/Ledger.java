@@ -0,0 +1,145 @@
+package atm;
+
+import java.util.List;
+import java.util.UUID;
+
+final class Ledger {
+
+    private final AccountRepository repository;
+    private final TransactionJournal journal;
+    private final BalanceWriteBehind writeBehind;
+    private final AccountCache accounts;
+
+    Ledger(AccountRepository repository, TransactionJournal journal, BalanceWriteBehind writeBehind, int cacheCapacity) {
+        this.repository = repository;
+        this.journal = journal;
+        this.writeBehind = writeBehind;
+        this.accounts = new AccountCache(cacheCapacity, this::load, writeBehind::isDirty);
+    }
+
+    // Every terminal shares one BankAccount per number, so the CAS in
+    // BankAccount is the single point of truth for concurrent debits. The
+    // cached instance is authoritative: balances reach the repository later
+    // through the write-behind log, and dirty accounts are never evicted.
+    // A clean entry may be evicted at any time, so callers that change an
+    // account acquire() it for the operation and release() it after;
+    // account() is for reads.
+    BankAccount account(String accountNumber) {
+        return accounts.get(accountNumber);
+    }
+
+    BankAccount acquire(String accountNumber) {
+        return accounts.acquire(accountNumber);
+    }
+
+    void release(BankAccount account) {
+        accounts.release(account.getAccountNumber());
+    }
+
+    // Rows written before PINs were hashed are upgraded the first time
+    // the account is loaded.
+    private BankAccount load(String accountNumber) {
+        BankAccount account = repository.findByNumber(accountNumber);
+        if (account != null && !PinHasher.isHashed(account.getPinHash())) {
+            String pinHash = PinHasher.hash(account.getPinHash());
+            repository.updatePinHash(accountNumber, pinHash);
+            account.setPinHash(pinHash);
+        }
+        return account;
+    }
+
+    // requestId tags the write-ahead record so recovery can tell whether
+    // the change was made; null for changes no RequestLog entry tracks.
+    //
+    // Every change checks first that the journal can take its entry, so a
+    // journal that is closed, full or cannot grow fails the operation before
+    // the balance or the write-ahead log is touched. No balance change
+    // outlives a failed write-ahead record: credits are recorded before they
+    // are applied, and a debit that cannot be recorded is put back.
+    boolean debit(BankAccount account, long amount, UUID requestId) {
+        journal.prepare(account.getAccountNumber());
+        long balance = account.debit(amount);
+        if (balance < 0) {
+            return false;
+        }
+        try {
+            writeBehind.record(requestId, account.getAccountNumber(), -amount);
+        } catch (RuntimeException e) {
+            account.credit(amount);
+            throw e;
+        }
+        journal.append(account.getAccountNumber(), TransactionJournal.Type.DEBIT, amount, balance);
+        return true;
+    }
+
+    boolean credit(BankAccount account, long amount, UUID requestId) {
+        return credit(account, amount, requestId, TransactionJournal.Type.CREDIT);
+    }
+
+    // Puts back a withdrawal that recovery found debited but never paid out.
+    boolean reverse(BankAccount account, long amount, UUID requestId) {
+        return credit(account, amount, requestId, TransactionJournal.Type.REVERSAL);
+    }
+
+    private boolean credit(BankAccount account, long amount, UUID requestId, TransactionJournal.Type type) {
+        if (amount <= 0) {
+            return false;
+        }
+        journal.prepare(account.getAccountNumber());
+        writeBehind.record(requestId, account.getAccountNumber(), amount);
+        journal.append(account.getAccountNumber(), type, amount, account.credit(amount));
+        return true;
+    }
+
+    // Both accounts are locked in account-number order, so two transfers
+    // running in opposite directions between the same pair cannot deadlock.
+    boolean transfer(BankAccount from, BankAccount to, long amount) {
+        if (amount <= 0) {
+            return false;
+        }
+        journal.prepare(from.getAccountNumber());
+        journal.prepare(to.getAccountNumber());
+        boolean fromFirst = from.getAccountNumber().compareTo(to.getAccountNumber()) < 0;
+        BankAccount first = fromFirst ? from : to;
+        BankAccount second = fromFirst ? to : from;
+        long fromBalance;
+        long toBalance;
+        synchronized (first) {
+            synchronized (second) {
+                fromBalance = from.debit(amount);
+                if (fromBalance < 0) {
+                    return false;
+                }
+                try {
+                    writeBehind.record(from.getAccountNumber(), -amount, to.getAccountNumber(), amount);
+                } catch (RuntimeException e) {
+                    from.credit(amount);
+                    throw e;
+                }
+                toBalance = to.credit(amount);
+            }
+        }
+        journal.append(from.getAccountNumber(), TransactionJournal.Type.TRANSFER_OUT, amount, fromBalance);
+        journal.append(to.getAccountNumber(), TransactionJournal.Type.TRANSFER_IN, amount, toBalance);
+        return true;
+    }
+
+    void changePin(BankAccount account, String newPinHash) {
+        journal.prepare(account.getAccountNumber());
+        repository.updatePinHash(account.getAccountNumber(), newPinHash);
+        account.setPinHash(newPinHash);
+        journal.append(account.getAccountNumber(), TransactionJournal.Type.PIN_CHANGE, 0, account.getBalance());
+    }
+
+    List<TransactionJournal.Entry> recentTransactions(BankAccount account, int limit) {
+        return journal.recent(account.getAccountNumber(), limit);
+    }
+
+    TransactionJournal.Page transactions(BankAccount account, TransactionJournal.Filter filter, int before, int limit) {
+        return journal.page(account.getAccountNumber(), filter, before, limit);
+    }
+
+    AccountCache cache() {
+        return accounts;
+    }
+}
@@ -0,0 +1,37 @@
+package atm;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-account failed-PIN counter. After MAX_FAILED_ATTEMPTS consecutive
+// failures the account is refused without running the PIN hash at all.
+final class LoginGuard {
+
+    static final int MAX_FAILED_ATTEMPTS = 3;
+    static final long LOCKOUT_MILLIS = 15 * 60 * 1000L;
+
+    private record Attempts(int failures, long lockedUntil) {}
+
+    private final ConcurrentHashMap<String, Attempts> attempts = new ConcurrentHashMap<>();
+
+    boolean isLocked(String accountNumber, long now) {
+        Attempts current = attempts.get(accountNumber);
+        return current != null && current.lockedUntil() > now;
+    }
+
+    void recordFailure(String accountNumber, long now) {
+        attempts.compute(accountNumber, (key, current) -> {
+            int failures = current == null || current.lockedUntil() != 0 && current.lockedUntil() <= now
+                ? 1 : current.failures() + 1;
+            return new Attempts(failures, failures >= MAX_FAILED_ATTEMPTS ? now + LOCKOUT_MILLIS : 0);
+        });
+    }
+
+    void recordSuccess(String accountNumber) {
+        attempts.remove(accountNumber);
+    }
+
+    int failures(String accountNumber) {
+        Attempts current = attempts.get(accountNumber);
+        return current == null ? 0 : current.failures();
+    }
+}
@@ -0,0 +1,78 @@
+package atm;
+
+final class Money {
+
+    static final long PAISE_PER_RUPEE = 100;
+
+    private static final int MAX_RUPEE_DIGITS = 16;
+
+    private Money() {
+    }
+
+    static long ofRupees(long rupees) {
+        return Math.multiplyExact(rupees, PAISE_PER_RUPEE);
+    }
+
+    // Parses "1500", "1500.5" or "1500.50" into paise without going
+    // through double, so every accepted input maps to an exact amount.
+    static long parse(String text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long rupees = 0;
+        int rupeeDigits = 0;
+        while (i < length && text.charAt(i) != '.') {
+            rupees = rupees * 10 + digit(text, i);
+            if (++rupeeDigits > MAX_RUPEE_DIGITS) {
+                throw new NumberFormatException("Amount too large: " + text);
+            }
+            i++;
+        }
+        long paise = 0;
+        int paiseDigits = 0;
+        if (i < length) {
+            i++;
+            while (i < length) {
+                if (++paiseDigits > 2) {
+                    throw new NumberFormatException("At most two decimal places allowed: " + text);
+                }
+                paise = paise * 10 + digit(text, i);
+                i++;
+            }
+            if (paiseDigits == 1) {
+                paise *= 10;
+            }
+        }
+        if (rupeeDigits == 0 && paiseDigits == 0) {
+            throw new NumberFormatException("Not an amount: " + text);
+        }
+        long total = rupees * PAISE_PER_RUPEE + paise;
+        return negative ? -total : total;
+    }
+
+    static String format(long paise) {
+        long abs = Math.abs(paise);
+        long fraction = abs % PAISE_PER_RUPEE;
+        StringBuilder sb = new StringBuilder(24);
+        if (paise < 0) {
+            sb.append('-');
+        }
+        sb.append(abs / PAISE_PER_RUPEE).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
+    }
+
+    private static int digit(String text, int index) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Not an amount: " + text);
+        }
+        return c - '0';
+    }
+}
@@ -0,0 +1,93 @@
+package atm;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-operation outcome counters and latency histograms for AtmService.
+// Every counter is a LongAdder indexed by enum ordinal, so recording an
+// operation costs a few uncontended increments and is safe to leave on.
+final class OperationMetrics {
+
+    enum Operation { LOGIN, BALANCE, WITHDRAW, DEPOSIT, TRANSFER, PIN_CHANGE, STATEMENT }
+
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private final LongAdder[][] outcomes = new LongAdder[Operation.values().length][AtmService.Status.values().length];
+    private final LongAdder[] errors = new LongAdder[Operation.values().length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+
+    OperationMetrics() {
+        for (Operation operation : Operation.values()) {
+            int op = operation.ordinal();
+            for (int status = 0; status < outcomes[op].length; status++) {
+                outcomes[op][status] = new LongAdder();
+            }
+            errors[op] = new LongAdder();
+            latencies[op] = new LatencyHistogram();
+        }
+    }
+
+    void record(Operation operation, AtmService.Status status, long nanos) {
+        outcomes[operation.ordinal()][status.ordinal()].increment();
+        latencies[operation.ordinal()].record(nanos);
+    }
+
+    // An operation that ended in an exception rather than a Status.
+    void recordError(Operation operation, long nanos) {
+        errors[operation.ordinal()].increment();
+        latencies[operation.ordinal()].record(nanos);
+    }
+
+    long count(Operation operation, AtmService.Status status) {
+        return outcomes[operation.ordinal()][status.ordinal()].sum();
+    }
+
+    LatencyHistogram latency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    // Prometheus text exposition format (version 0.0.4).
+    void writePrometheus(StringBuilder out) {
+        out.append("# HELP atm_operations_total Completed ATM operations by outcome.\n");
+        out.append("# TYPE atm_operations_total counter\n");
+        for (Operation operation : Operation.values()) {
+            for (AtmService.Status status : AtmService.Status.values()) {
+                long count = count(operation, status);
+                if (count > 0) {
+                    out.append("atm_operations_total{operation=\"").append(label(operation))
+                        .append("\",status=\"").append(status.name().toLowerCase(Locale.ROOT))
+                        .append("\"} ").append(count).append('\n');
+                }
+            }
+        }
+        out.append("# HELP atm_operation_errors_total ATM operations that failed with an exception.\n");
+        out.append("# TYPE atm_operation_errors_total counter\n");
+        for (Operation operation : Operation.values()) {
+            out.append("atm_operation_errors_total{operation=\"").append(label(operation))
+                .append("\"} ").append(errors[operation.ordinal()].sum()).append('\n');
+        }
+        out.append("# HELP atm_operation_latency_seconds ATM operation latency.\n");
+        out.append("# TYPE atm_operation_latency_seconds summary\n");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latency(operation);
+            String name = label(operation);
+            for (double quantile : QUANTILES) {
+                out.append("atm_operation_latency_seconds{operation=\"").append(name)
+                    .append("\",quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.quantile(quantile))).append('\n');
+            }
+            out.append("atm_operation_latency_seconds_sum{operation=\"").append(name).append("\"} ")
+                .append(seconds(histogram.sum())).append('\n');
+            out.append("atm_operation_latency_seconds_count{operation=\"").append(name).append("\"} ")
+                .append(histogram.count()).append('\n');
+        }
+    }
+
+    private static String label(Operation operation) {
+        return operation.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
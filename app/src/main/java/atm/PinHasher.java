@@ -0,0 +1,96 @@
+package atm;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// Salted PBKDF2 PIN hashes, encoded as "pbkdf2$<iterations>$<salt>$<hash>" so
+// the cost factor can be raised later without invalidating stored PINs.
+final class PinHasher {
+
+    static final int ITERATIONS = Integer.getInteger("atm.pin.iterations", 50_000);
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    static final int RAW_BYTES = SALT_BYTES + HASH_BITS / 8;
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PinHasher() {
+    }
+
+    static String hash(String pin) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        return PREFIX + ITERATIONS + '$' + ENCODER.encodeToString(salt) + '$'
+            + ENCODER.encodeToString(derive(pin, salt, ITERATIONS));
+    }
+
+    static boolean verify(String pin, String encoded) {
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 4 || !isHashed(encoded)) {
+            return false;
+        }
+        byte[] expected = DECODER.decode(parts[3]);
+        byte[] actual = derive(pin, DECODER.decode(parts[2]), Integer.parseInt(parts[1]));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    // Binary form for compact tables: the iteration count separately, and
+    // salt followed by hash as RAW_BYTES bytes.
+    static int iterations(String encoded) {
+        return Integer.parseInt(encoded.split("\\$")[1]);
+    }
+
+    static void toRaw(String encoded, byte[] target, int offset) {
+        String[] parts = encoded.split("\\$");
+        byte[] salt = DECODER.decode(parts[2]);
+        byte[] hash = DECODER.decode(parts[3]);
+        System.arraycopy(salt, 0, target, offset, SALT_BYTES);
+        System.arraycopy(hash, 0, target, offset + SALT_BYTES, hash.length);
+    }
+
+    static String fromRaw(int iterations, byte[] source, int offset) {
+        byte[] salt = new byte[SALT_BYTES];
+        byte[] hash = new byte[RAW_BYTES - SALT_BYTES];
+        System.arraycopy(source, offset, salt, 0, salt.length);
+        System.arraycopy(source, offset + SALT_BYTES, hash, 0, hash.length);
+        return PREFIX + iterations + '$' + ENCODER.encodeToString(salt) + '$' + ENCODER.encodeToString(hash);
+    }
+
+    static boolean isHashed(String stored) {
+        return stored.startsWith(PREFIX);
+    }
+
+    // A hash verify() can actually check: positive iterations and a salt and
+    // hash of the right length.
+    static boolean isWellFormed(String stored) {
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4 || !isHashed(stored) || !parts[1].matches("[1-9]\\d{0,8}")) {
+            return false;
+        }
+        try {
+            return DECODER.decode(parts[2]).length == SALT_BYTES
+                && DECODER.decode(parts[3]).length == RAW_BYTES - SALT_BYTES;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] derive(String pin, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(pin.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package atm;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+// Runs PIN hashing on its own bounded pool so slow verification never lands
+// on a UI or session thread, and remembers successful verifications per
+// session so a session re-entering the same PIN skips the PBKDF2 cost.
+final class PinVerifier implements AutoCloseable {
+
+    private static final String DUMMY_HASH = PinHasher.hash("0000");
+
+    private record Verified(String accountNumber, String pinHash, byte[] mac) {}
+
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<String, Verified> sessions = new ConcurrentHashMap<>();
+    private final SecretKeySpec sessionKey;
+
+    PinVerifier() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "pin-verifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        sessionKey = new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    ExecutorService executor() {
+        return executor;
+    }
+
+    // A null account is still hashed against a dummy value, so unknown
+    // account numbers take as long to reject as wrong PINs.
+    boolean verify(String sessionId, BankAccount account, String pin) {
+        if (account == null) {
+            PinHasher.verify(pin, DUMMY_HASH);
+            return false;
+        }
+        String pinHash = account.getPinHash();
+        byte[] mac = mac(account.getAccountNumber(), pin);
+        Verified cached = sessions.get(sessionId);
+        if (cached != null && cached.accountNumber().equals(account.getAccountNumber())
+                && cached.pinHash().equals(pinHash) && MessageDigest.isEqual(cached.mac(), mac)) {
+            return true;
+        }
+        if (!PinHasher.verify(pin, pinHash)) {
+            return false;
+        }
+        sessions.put(sessionId, new Verified(account.getAccountNumber(), pinHash, mac));
+        return true;
+    }
+
+    void endSession(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    private byte[] mac(String accountNumber, String pin) {
+        try {
+            Mac hmac = Mac.getInstance("HmacSHA256");
+            hmac.init(sessionKey);
+            return hmac.doFinal((accountNumber + ':' + pin).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
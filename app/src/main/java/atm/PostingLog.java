@@ -0,0 +1,84 @@
+package atm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// End-of-day postings, kept apart from the transaction journal so ten
+// million accounts a day never fill it. Each business date gets a
+// directory and each partition one CSV file in it:
+//
+//   <root>/eod-2026-10-18/partition-00042.csv
+//
+// A file is written to a temporary name, forced and renamed before the
+// partition's balances are committed. A partition that was not committed
+// is recomputed from the same balances on the rerun and its file simply
+// rewritten, so the batch's progress marks keep the files exact without a
+// progress mark of their own. Old days can be archived or deleted whole.
+final class PostingLog {
+
+    enum Kind { INTEREST, FEE }
+
+    record Posting(String accountNumber, Kind kind, long amount, long balanceAfter) {}
+
+    private static final String HEADER = "account_number,type,amount,balance_after\n";
+
+    private final Path dir;
+
+    private PostingLog(Path dir) {
+        this.dir = dir;
+    }
+
+    static PostingLog open(Path root, String batchId) {
+        Path dir = root.resolve(batchId);
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create posting directory " + dir, e);
+        }
+        return new PostingLog(dir);
+    }
+
+    static Path defaultRoot() {
+        return Path.of(System.getProperty("atm.eod.postings", "postings"));
+    }
+
+    Path file(int partition) {
+        return dir.resolve(String.format("partition-%05d.csv", partition));
+    }
+
+    // Replaces the partition's file with these postings, durably.
+    void write(int partition, List<Posting> postings) {
+        Path target = file(partition);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        StringBuilder csv = new StringBuilder(HEADER.length() + postings.size() * 48).append(HEADER);
+        for (Posting posting : postings) {
+            csv.append(posting.accountNumber()).append(',')
+                .append(posting.kind().name()).append(',')
+                .append(Money.format(posting.amount())).append(',')
+                .append(Money.format(posting.balanceAfter())).append('\n');
+        }
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = StandardCharsets.US_ASCII.encode(csv.toString());
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            out.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + temporary, e);
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rename " + temporary, e);
+        }
+    }
+}
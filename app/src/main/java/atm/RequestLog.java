@@ -0,0 +1,328 @@
+package atm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Durable record of every withdrawal and deposit by request id. BEGIN is
+// written before the balance changes and END once the outcome is known, so
+// after a crash the requests still between the two can be finished or
+// undone. APPLIED marks in-flight requests whose balance change has already
+// been flushed to the repository (their write-ahead segment is gone).
+//
+// The last indexCapacity outcomes stay in an insertion-ordered map, so a
+// retried request id is answered in O(1) without touching the balance. The
+// file is rewritten to just those outcomes when it grows past
+// COMPACT_BYTES and on every start.
+final class RequestLog implements AutoCloseable {
+
+    // Stored by code, like AtmService.Status.
+    enum Action {
+        WITHDRAW(0),
+        DEPOSIT(1);
+
+        private final int code;
+
+        Action(int code) {
+            this.code = code;
+        }
+
+        static Action ofCode(int code) {
+            for (Action action : values()) {
+                if (action.code == code) {
+                    return action;
+                }
+            }
+            return null;
+        }
+    }
+
+    record Outcome(Action action, AtmService.Status status, long amount, long balance) {}
+
+    record Pending(UUID id, Action action, String accountNumber, long amount, boolean applied) {}
+
+    private static final byte BEGIN = 1;
+    private static final byte APPLIED = 2;
+    private static final byte END = 3;
+    // kind, action, status, account length, id (2 longs), amount, balance
+    private static final int HEADER_BYTES = 4 + 4 * Long.BYTES;
+    private static final long COMPACT_BYTES = 64L << 20;
+
+    private final Path path;
+    private final int indexCapacity;
+    private final Object syncLock = new Object();
+    private final ConcurrentHashMap<UUID, Pending> active = new ConcurrentHashMap<>();
+    private final LinkedHashMap<UUID, Outcome> completed;
+    private final List<Pending> recovered = new ArrayList<>();
+    private FileChannel channel;
+    private long written;
+    private volatile long synced;
+
+    private RequestLog(Path path, int indexCapacity) {
+        this.path = path;
+        this.indexCapacity = indexCapacity;
+        this.completed = new LinkedHashMap<>(Math.min(indexCapacity, 1 << 16), 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Outcome> eldest) {
+                return size() > RequestLog.this.indexCapacity;
+            }
+        };
+    }
+
+    static RequestLog open(Path path, int indexCapacity) {
+        RequestLog log = new RequestLog(path, indexCapacity);
+        try {
+            log.replay();
+            log.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open request log " + path, e);
+        }
+        return log;
+    }
+
+    // Requests that had begun but not ended when the process last stopped.
+    // The caller resolves each one with end() and then calls compact().
+    List<Pending> inFlight() {
+        return List.copyOf(recovered);
+    }
+
+    Outcome completed(UUID id) {
+        synchronized (completed) {
+            return completed.get(id);
+        }
+    }
+
+    // Returns false if the id is already running or has completed; the
+    // caller then answers from completed() or reports it as in progress.
+    boolean begin(UUID id, Action action, String accountNumber, long amount) {
+        Pending pending = new Pending(id, action, accountNumber, amount, false);
+        synchronized (completed) {
+            if (completed.containsKey(id) || active.putIfAbsent(id, pending) != null) {
+                return false;
+            }
+        }
+        append(BEGIN, id, action, null, accountNumber, amount, 0);
+        return true;
+    }
+
+    // The END record and the move from active to completed happen under the
+    // lock compact() takes, so a compaction cannot drop the END with the old
+    // file and still copy the request into the new one as running.
+    void end(UUID id, Action action, AtmService.Status status, long amount, long balance) {
+        ByteBuffer record = encode(END, id, action, status, "", amount, balance);
+        long sequence;
+        synchronized (this) {
+            sequence = write(record);
+            synchronized (completed) {
+                completed.put(id, new Outcome(action, status, amount, balance));
+                active.remove(id);
+            }
+        }
+        sync(sequence);
+        if (sequence > COMPACT_BYTES) {
+            compact();
+        }
+    }
+
+    // Called by the write-behind flusher before it deletes a segment, so
+    // requests still in flight keep a record that their change landed.
+    void applied(Collection<UUID> ids) {
+        boolean any = false;
+        for (UUID id : ids) {
+            Pending pending = active.computeIfPresent(id, (key, running) -> new Pending(key, running.action(),
+                running.accountNumber(), running.amount(), true));
+            if (pending != null) {
+                append(APPLIED, id, pending.action(), null, "", 0, 0, false);
+                any = true;
+            }
+        }
+        if (any) {
+            sync(currentSequence());
+        }
+    }
+
+    // Rewrites the log as END records for the indexed outcomes plus the
+    // BEGIN (and APPLIED) records of requests still running, then swaps it
+    // in atomically.
+    void compact() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                Path next = path.resolveSibling(path.getFileName() + ".compact");
+                try (FileChannel out = FileChannel.open(next, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    long bytes = 0;
+                    synchronized (completed) {
+                        for (Map.Entry<UUID, Outcome> entry : completed.entrySet()) {
+                            Outcome outcome = entry.getValue();
+                            bytes += write(out, encode(END, entry.getKey(), outcome.action(), outcome.status(), "",
+                                outcome.amount(), outcome.balance()));
+                        }
+                        for (Pending pending : active.values()) {
+                            bytes += write(out, encode(BEGIN, pending.id(), pending.action(), null,
+                                pending.accountNumber(), pending.amount(), 0));
+                            if (pending.applied()) {
+                                bytes += write(out, encode(APPLIED, pending.id(), pending.action(), null, "", 0, 0));
+                            }
+                        }
+                    }
+                    out.force(true);
+                    channel.close();
+                    Files.move(next, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    written = bytes;
+                    synced = bytes;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot compact request log " + path, e);
+                }
+            }
+        }
+    }
+
+    private void append(byte kind, UUID id, Action action, AtmService.Status status,
+                        String accountNumber, long amount, long balance) {
+        append(kind, id, action, status, accountNumber, amount, balance, true);
+    }
+
+    private void append(byte kind, UUID id, Action action, AtmService.Status status,
+                        String accountNumber, long amount, long balance, boolean durable) {
+        long sequence = write(encode(kind, id, action, status, accountNumber, amount, balance));
+        if (durable) {
+            sync(sequence);
+        }
+    }
+
+    // Returns the sequence to sync() up to for the record to be durable.
+    private synchronized long write(ByteBuffer record) {
+        try {
+            written += write(channel, record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to request log", e);
+        }
+        return written;
+    }
+
+    private synchronized long currentSequence() {
+        return written;
+    }
+
+    // Group commit, as in BalanceWriteBehind: one force covers every record
+    // written before it started.
+    private void sync(long sequence) {
+        if (synced >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= sequence) {
+                return;
+            }
+            long upTo;
+            FileChannel current;
+            synchronized (this) {
+                upTo = written;
+                current = channel;
+            }
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot sync request log", e);
+            }
+            synced = upTo;
+        }
+    }
+
+    private static ByteBuffer encode(byte kind, UUID id, Action action, AtmService.Status status,
+                                     String accountNumber, long amount, long balance) {
+        byte[] account = accountNumber.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + account.length);
+        buffer.put(kind)
+            .put((byte) action.code)
+            .put((byte) (status == null ? -1 : status.code()))
+            .put((byte) account.length)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits())
+            .putLong(amount)
+            .putLong(balance)
+            .put(account);
+        return buffer.flip();
+    }
+
+    private static int write(FileChannel target, ByteBuffer record) throws IOException {
+        int bytes = record.remaining();
+        while (record.hasRemaining()) {
+            target.write(record);
+        }
+        return bytes;
+    }
+
+    // A torn record at the end of the file (crash mid-write) is ignored.
+    private void replay() throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        Map<UUID, Pending> begun = new LinkedHashMap<>();
+        Set<UUID> applied = new HashSet<>();
+        while (buffer.remaining() >= HEADER_BYTES) {
+            byte kind = buffer.get();
+            Action action = Action.ofCode(buffer.get());
+            AtmService.Status status = AtmService.Status.ofCode(buffer.get());
+            int length = buffer.get();
+            UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            long amount = buffer.getLong();
+            long balance = buffer.getLong();
+            if (length < 0 || buffer.remaining() < length) {
+                break;
+            }
+            byte[] account = new byte[length];
+            buffer.get(account);
+            if (action == null || kind == END && status == null) {
+                throw new IllegalStateException("Corrupt request log " + path + ": unknown action or status");
+            }
+            switch (kind) {
+                case BEGIN -> begun.put(id, new Pending(id, action,
+                    new String(account, StandardCharsets.US_ASCII), amount, false));
+                case APPLIED -> applied.add(id);
+                case END -> {
+                    begun.remove(id);
+                    completed.put(id, new Outcome(action, status, amount, balance));
+                }
+                default -> throw new IllegalStateException("Corrupt request log " + path + ": record kind " + kind);
+            }
+        }
+        for (Pending pending : begun.values()) {
+            Pending resolved = new Pending(pending.id(), pending.action(), pending.accountNumber(),
+                pending.amount(), applied.contains(pending.id()));
+            recovered.add(resolved);
+            active.put(pending.id(), resolved);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                try {
+                    channel.force(false);
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot close request log", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package atm;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+final class SqliteAccountRepository implements AccountRepository {
+
+    private static final int POOL_SIZE = 4;
+
+    private static final String FIND_SQL =
+        "SELECT account_number, holder_name, balance, pin FROM accounts WHERE account_number = ?";
+    private static final String INSERT_SQL =
+        "INSERT OR IGNORE INTO accounts (account_number, holder_name, balance, pin) VALUES (?, ?, ?, ?)";
+    private static final String CREDIT_SQL =
+        "UPDATE accounts SET balance = balance + ? WHERE account_number = ?";
+    private static final String UPDATE_PIN_HASH_SQL =
+        "UPDATE accounts SET pin = ? WHERE account_number = ?";
+    private static final String COUNT_SQL =
+        "SELECT COUNT(*) FROM accounts";
+    private static final String EXPORT_SQL =
+        "SELECT account_number, holder_name, balance, pin FROM accounts ORDER BY account_number";
+    private static final String SET_GENERATION_SQL =
+        "INSERT INTO write_behind (id, generation) VALUES (1, ?) ON CONFLICT(id) DO UPDATE SET generation = excluded.generation";
+    private static final String GENERATION_SQL =
+        "SELECT generation FROM write_behind WHERE id = 1";
+    private static final String MAX_ROWID_SQL =
+        "SELECT COALESCE(MAX(rowid), 0) FROM accounts";
+    private static final String PARTITION_SQL =
+        "SELECT account_number, balance FROM accounts WHERE rowid > ? AND rowid <= ?";
+    private static final String MARK_PARTITION_SQL =
+        "INSERT OR IGNORE INTO batch_progress (batch_id, partition) VALUES (?, ?)";
+    private static final String COMMITTED_PARTITIONS_SQL =
+        "SELECT partition FROM batch_progress WHERE batch_id = ?";
+    private static final int EXPORT_FETCH_SIZE = 10_000;
+    private static final int PARTITION_ROWS = 16_384;
+
+    private final ConnectionPool pool;
+
+    private SqliteAccountRepository(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    static SqliteAccountRepository open(String path) {
+        try {
+            ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + path, POOL_SIZE,
+                "PRAGMA journal_mode=WAL",
+                "PRAGMA synchronous=NORMAL",
+                "PRAGMA busy_timeout=5000");
+            SqliteAccountRepository repository = new SqliteAccountRepository(pool);
+            repository.createSchema();
+            return repository;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot open account database " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void createSchema() {
+        pool.execute(c -> {
+            try (Statement st = c.connection().createStatement()) {
+                st.execute("""
+                    CREATE TABLE IF NOT EXISTS accounts (
+                        account_number TEXT PRIMARY KEY,
+                        holder_name    TEXT NOT NULL,
+                        balance        INTEGER NOT NULL,
+                        pin            TEXT NOT NULL
+                    )""");
+                st.execute("""
+                    CREATE TABLE IF NOT EXISTS write_behind (
+                        id         INTEGER PRIMARY KEY CHECK (id = 1),
+                        generation INTEGER NOT NULL
+                    )""");
+                st.execute("""
+                    CREATE TABLE IF NOT EXISTS batch_progress (
+                        batch_id  TEXT NOT NULL,
+                        partition INTEGER NOT NULL,
+                        PRIMARY KEY (batch_id, partition)
+                    )""");
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public BankAccount findByNumber(String accountNumber) {
+        return pool.execute(c -> {
+            PreparedStatement ps = c.prepare(FIND_SQL);
+            ps.setString(1, accountNumber);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new BankAccount(rs.getString(1), rs.getString(2),
+                    rs.getLong(3), rs.getString(4));
+            }
+        });
+    }
+
+    @Override
+    public void insertIfAbsent(BankAccount account) {
+        pool.execute(c -> {
+            PreparedStatement ps = c.prepare(INSERT_SQL);
+            ps.setString(1, account.getAccountNumber());
+            ps.setString(2, account.getAccountHolderName());
+            ps.setLong(3, account.getBalance());
+            ps.setString(4, account.getPinHash());
+            return ps.executeUpdate();
+        });
+    }
+
+    // Inserts the whole batch in one transaction; returns how many rows were
+    // new (existing account numbers are left untouched).
+    int insertBatch(List<BankAccount> accounts) {
+        return pool.execute(c -> {
+            Connection connection = c.connection();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement ps = c.prepare(INSERT_SQL);
+                for (BankAccount account : accounts) {
+                    ps.setString(1, account.getAccountNumber());
+                    ps.setString(2, account.getAccountHolderName());
+                    ps.setLong(3, account.getBalance());
+                    ps.setString(4, account.getPinHash());
+                    ps.addBatch();
+                }
+                int inserted = 0;
+                for (int count : ps.executeBatch()) {
+                    if (count > 0) {
+                        inserted++;
+                    }
+                }
+                connection.commit();
+                return inserted;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    // Streams every account in account-number order without materialising
+    // the table; the connection is held for the duration of the scan.
+    void forEachAccount(Consumer<BankAccount> action) {
+        pool.execute(c -> {
+            PreparedStatement ps = c.prepare(EXPORT_SQL);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(new BankAccount(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getString(4)));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void updatePinHash(String accountNumber, String pinHash) {
+        pool.execute(c -> {
+            PreparedStatement ps = c.prepare(UPDATE_PIN_HASH_SQL);
+            ps.setString(1, pinHash);
+            ps.setString(2, accountNumber);
+            return ps.executeUpdate();
+        });
+    }
+
+    // One transaction per flush: the deltas and the generation marker commit
+    // together, so replaying a write-behind segment after a crash can tell
+    // whether it already landed.
+    @Override
+    public void applyBalanceChanges(Map<String, Long> deltas, long generation) {
+        pool.execute(c -> {
+            Connection connection = c.connection();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement ps = c.prepare(CREDIT_SQL);
+                for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                    ps.setLong(1, delta.getValue());
+                    ps.setString(2, delta.getKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                PreparedStatement marker = c.prepare(SET_GENERATION_SQL);
+                marker.setLong(1, generation);
+                marker.executeUpdate();
+                connection.commit();
+                return null;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    @Override
+    public long appliedGeneration() {
+        return pool.execute(c -> {
+            try (ResultSet rs = c.prepare(GENERATION_SQL).executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        });
+    }
+
+    // Partitions are rowid ranges. Accounts are never deleted, so a range
+    // keeps its accounts and new ones land in new partitions.
+    @Override
+    public int partitionCount() {
+        return pool.execute(c -> {
+            try (ResultSet rs = c.prepare(MAX_ROWID_SQL).executeQuery()) {
+                long maxRowid = rs.next() ? rs.getLong(1) : 0L;
+                return Math.toIntExact((maxRowid + PARTITION_ROWS - 1) / PARTITION_ROWS);
+            }
+        });
+    }
+
+    @Override
+    public void forEachBalance(int partition, ObjLongConsumer<String> action) {
+        pool.execute(c -> {
+            PreparedStatement ps = c.prepare(PARTITION_SQL);
+            ps.setLong(1, (long) partition * PARTITION_ROWS);
+            ps.setLong(2, (long) (partition + 1) * PARTITION_ROWS);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(rs.getString(1), rs.getLong(2));
+                }
+            }
+            return null;
+        });
+    }
+
+    // The progress row is written first: a second runner of the same batch
+    // waits on the write lock, then finds the row and backs out.
+    @Override
+    public boolean commitPartition(String batchId, int partition, Map<String, Long> deltas) {
+        return pool.execute(c -> {
+            Connection connection = c.connection();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement marker = c.prepare(MARK_PARTITION_SQL);
+                marker.setString(1, batchId);
+                marker.setInt(2, partition);
+                if (marker.executeUpdate() == 0) {
+                    connection.rollback();
+                    return false;
+                }
+                PreparedStatement ps = c.prepare(CREDIT_SQL);
+                for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                    ps.setLong(1, delta.getValue());
+                    ps.setString(2, delta.getKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    @Override
+    public Set<Integer> committedPartitions(String batchId) {
+        return pool.execute(c -> {
+            PreparedStatement ps = c.prepare(COMMITTED_PARTITIONS_SQL);
+            ps.setString(1, batchId);
+            Set<Integer> partitions = new HashSet<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    partitions.add(rs.getInt(1));
+                }
+            }
+            return partitions;
+        });
+    }
+
+    @Override
+    public long count() {
+        return pool.execute(c -> {
+            try (ResultSet rs = c.prepare(COUNT_SQL).executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
@@ -0,0 +1,72 @@
+package atm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Exclusive lock on a file next to the account store, held by whichever
+// process owns the store: a running ATM or the end-of-day batch. The
+// operating system drops it when the holder exits, however it exits, so a
+// crash never leaves it stale. The file itself is left in place; deleting
+// it would let two processes lock different files of the same name.
+final class StoreLock implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private StoreLock(FileChannel channel, FileLock lock) {
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    static Path forStore(String database) {
+        return Path.of(database + ".lock");
+    }
+
+    // Throws IllegalStateException if another process, or another owner in
+    // this one, holds it.
+    static StoreLock acquire(Path path) {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open " + path, e);
+        }
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException e) {
+            close(channel);
+            throw new UncheckedIOException("Cannot lock " + path, e);
+        }
+        if (lock == null) {
+            close(channel);
+            throw new IllegalStateException(path + " is held by a running ATM or end-of-day batch");
+        }
+        return new StoreLock(channel, lock);
+    }
+
+    private static void close(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // the lock was never taken; nothing to undo
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            lock.release();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot release store lock", e);
+        }
+    }
+}
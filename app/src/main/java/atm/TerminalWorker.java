@@ -0,0 +1,27 @@
+package atm;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+// The terminal's account operations may touch the disk or the PIN hasher,
+// so they run here instead of on the EDT; one thread keeps them in click
+// order. Kept out of ATMSystemMain so it runs without a display.
+final class TerminalWorker {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "atm-terminal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // onDone runs on the EDT with the operation's value, or with a null
+    // value and the failure.
+    <T> void submit(Supplier<T> operation, BiConsumer<T, Throwable> onDone) {
+        CompletableFuture.supplyAsync(operation, executor)
+            .whenComplete((value, error) -> SwingUtilities.invokeLater(() -> onDone.accept(value, error)));
+    }
+}
@@ -0,0 +1,377 @@
+package atm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+// Append-only log of fixed-size records in a memory-mapped file. The file is
+// mapped in fixed windows of WINDOW_RECORDS records, added as it grows, so no
+// single mapping has to cover the whole file. Each record points back to
+// the previous record of the same account. In memory, every
+// account keeps the positions of its records in time order, so a page of
+// history is found by one binary search on the timestamp and then read
+// entry by entry: the cost depends on the page size, not on how long the
+// account's history is.
+//
+// Readers take the lock only to copy out the window array and the
+// account's position array and size; records below that size never change
+// and arrays are replaced, not resized, so the entries are read without
+// holding up appends.
+final class TransactionJournal implements AutoCloseable {
+
+    enum Type { DEBIT, CREDIT, PIN_CHANGE, TRANSFER_OUT, TRANSFER_IN, REVERSAL }
+
+    record Entry(long timestamp, Type type, long amount, long balanceAfter) {}
+
+    // Inclusive millisecond range plus the entry types to keep.
+    record Filter(long fromMillis, long toMillis, Set<Type> types) {
+        static final Filter ALL = new Filter(0, Long.MAX_VALUE, EnumSet.allOf(Type.class));
+
+        static Filter since(long fromMillis) {
+            return new Filter(fromMillis, Long.MAX_VALUE, ALL.types());
+        }
+
+        // Whole days from 'from' to 'to'; a null end leaves that side open.
+        static Filter days(LocalDate from, LocalDate to, Set<Type> types, ZoneId zone) {
+            long fromMillis = from == null ? 0 : from.atStartOfDay(zone).toInstant().toEpochMilli();
+            long toMillis = to == null ? Long.MAX_VALUE : to.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() - 1;
+            return new Filter(fromMillis, toMillis, types.isEmpty() ? ALL.types() : EnumSet.copyOf(types));
+        }
+    }
+
+    // Newest first. Pass 'next' back as 'before' to continue with older
+    // entries; 0 means there are none left.
+    record Page(List<Entry> entries, int next) {}
+
+    static final int NEWEST = Integer.MAX_VALUE;
+
+    private static final int RECORD_SIZE = 48;
+    private static final int TIMESTAMP = 0;
+    private static final int ACCOUNT = 8;
+    private static final int AMOUNT = 16;
+    private static final int BALANCE = 24;
+    private static final int PREVIOUS = 32;
+    private static final int TYPE = 40;
+    private static final int MARKER = 44;
+    private static final int COMMITTED = 0x4A524E4C;
+    private static final int WINDOW_SHIFT = 18;
+    private static final long WINDOW_RECORDS = 1L << WINDOW_SHIFT;
+    private static final long WINDOW_BYTES = WINDOW_RECORDS * RECORD_SIZE;
+    // prepare() keeps at least this many free records mapped, so the appends
+    // that follow it never have to map a window themselves.
+    private static final int HEADROOM = 4096;
+    // Histories hold record indexes as ints.
+    private static final long MAX_RECORDS = Integer.MAX_VALUE;
+    // A page stops early after passing over this many entries of other
+    // types, so a filter for a rare type costs at most this much per page.
+    static final int MAX_SKIPPED = 1024;
+    private static final Type[] TYPES = Type.values();
+
+    private final FileChannel channel;
+    private final HashMap<Long, History> histories = new HashMap<>();
+    private final Thread flusher;
+    private MappedByteBuffer[] windows;
+    private long written;
+    private long durable;
+    private long lastTimestamp;
+    private boolean closed;
+
+    // What a reader copies out under the lock: records[0..size) are final.
+    private record View(MappedByteBuffer[] windows, int[] records, int size) {}
+
+    // Record indexes of one account in append order, which is also time
+    // order because timestamps never go backwards.
+    private static final class History {
+        int[] records = new int[4];
+        int size;
+
+        void add(int record) {
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+            }
+            records[size++] = record;
+        }
+    }
+
+    private TransactionJournal(FileChannel channel) throws IOException {
+        this.channel = channel;
+        windows = new MappedByteBuffer[(int) Math.max(1, (channel.size() + WINDOW_BYTES - 1) / WINDOW_BYTES)];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * WINDOW_BYTES, WINDOW_BYTES);
+        }
+        recover();
+        flusher = new Thread(this::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    static TransactionJournal open(Path path) {
+        try {
+            return new TransactionJournal(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open transaction journal " + path, e);
+        }
+    }
+
+    private void recover() {
+        long capacityRecords = windows.length * WINDOW_RECORDS;
+        long index = 0;
+        while (index < capacityRecords && window(index).getInt(offset(index) + MARKER) == COMMITTED) {
+            histories.computeIfAbsent(window(index).getLong(offset(index) + ACCOUNT), key -> new History()).add((int) index);
+            lastTimestamp = Math.max(lastTimestamp, window(index).getLong(offset(index) + TIMESTAMP));
+            index++;
+        }
+        written = index;
+        durable = index;
+    }
+
+    // Checks everything that could make an append for this account fail: a
+    // malformed account number, a closed or full journal, or a window that
+    // cannot be mapped. Callers run it before they move any money, so a
+    // journal failure leaves nothing half applied.
+    void prepare(String accountNumber) {
+        account(accountNumber);
+        synchronized (this) {
+            checkOpen();
+            ensureCapacity(written + HEADROOM);
+        }
+    }
+
+    // Blocks until the record is on disk. Concurrent appenders share one
+    // force() call, so durability costs one sync per batch, not per entry.
+    void append(String accountNumber, Type type, long amount, long balanceAfter) {
+        long account = account(accountNumber);
+        long sequence;
+        synchronized (this) {
+            checkOpen();
+            ensureCapacity(written + 1);
+            MappedByteBuffer window = window(written);
+            int base = offset(written);
+            History history = histories.computeIfAbsent(account, key -> new History());
+            lastTimestamp = Math.max(lastTimestamp, System.currentTimeMillis());
+            window.putLong(base + TIMESTAMP, lastTimestamp);
+            window.putLong(base + ACCOUNT, account);
+            window.putLong(base + AMOUNT, amount);
+            window.putLong(base + BALANCE, balanceAfter);
+            window.putLong(base + PREVIOUS, history.size == 0 ? 0 : history.records[history.size - 1] + 1L);
+            window.putInt(base + TYPE, type.ordinal());
+            window.putInt(base + MARKER, COMMITTED);
+            history.add(Math.toIntExact(written));
+            sequence = ++written;
+            notifyAll();
+        }
+        awaitDurable(sequence);
+    }
+
+    List<Entry> recent(String accountNumber, int limit) {
+        return page(accountNumber, Filter.ALL, NEWEST, limit).entries();
+    }
+
+    // Newest first, stopping at the first entry older than fromMillis.
+    List<Entry> since(String accountNumber, long fromMillis) {
+        return page(accountNumber, Filter.since(fromMillis), NEWEST, Integer.MAX_VALUE).entries();
+    }
+
+    // Every record in append order, which is time order, with its account,
+    // up to the last one appended when the call started.
+    void forEach(BiConsumer<String, Entry> action) {
+        MappedByteBuffer[] mapped;
+        long upTo;
+        synchronized (this) {
+            mapped = windows;
+            upTo = written;
+        }
+        for (long index = 0; index < upTo; index++) {
+            action.accept(String.valueOf(mapped[(int) (index >>> WINDOW_SHIFT)].getLong(offset(index) + ACCOUNT)),
+                entryAt(mapped, index));
+        }
+    }
+
+    // A page holds fewer than limit entries, with next still above 0, when
+    // it passed over MAX_SKIPPED entries of other types before filling up.
+    Page page(String accountNumber, Filter filter, int before, int limit) {
+        long account = Long.parseLong(accountNumber);
+        View view;
+        synchronized (this) {
+            History history = histories.get(account);
+            if (history == null) {
+                return new Page(List.of(), 0);
+            }
+            view = new View(windows, history.records, history.size);
+        }
+        int position = Math.min(Math.min(before, view.size()), after(view, filter.toMillis()));
+        List<Entry> entries = new ArrayList<>(Math.min(limit, 64));
+        int skipped = 0;
+        while (position > 0 && entries.size() < limit && skipped < MAX_SKIPPED) {
+            Entry entry = entryAt(view.windows(), view.records()[position - 1]);
+            if (entry.timestamp() < filter.fromMillis()) {
+                position = 0;
+                break;
+            }
+            position--;
+            if (filter.types().contains(entry.type())) {
+                entries.add(entry);
+            } else {
+                skipped++;
+            }
+        }
+        return new Page(entries, position);
+    }
+
+    // Position of the first entry of the history newer than millis.
+    private static int after(View view, long millis) {
+        int low = 0;
+        int high = view.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int record = view.records()[mid];
+            if (view.windows()[record >>> WINDOW_SHIFT].getLong(offset(record) + TIMESTAMP) <= millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Entry entryAt(MappedByteBuffer[] mapped, long index) {
+        MappedByteBuffer window = mapped[(int) (index >>> WINDOW_SHIFT)];
+        int base = offset(index);
+        return new Entry(window.getLong(base + TIMESTAMP), TYPES[window.getInt(base + TYPE)],
+            window.getLong(base + AMOUNT), window.getLong(base + BALANCE));
+    }
+
+    synchronized long size() {
+        return written;
+    }
+
+    private static long account(String accountNumber) {
+        try {
+            return Long.parseLong(accountNumber);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a journal account number: " + accountNumber, e);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    // Maps windows until the first 'records' records all have a place.
+    private void ensureCapacity(long records) {
+        if (written >= MAX_RECORDS) {
+            throw new IllegalStateException("Transaction journal is full");
+        }
+        long needed = Math.min(records, MAX_RECORDS);
+        if (needed <= windows.length * WINDOW_RECORDS) {
+            return;
+        }
+        int count = (int) ((needed + WINDOW_RECORDS - 1) / WINDOW_RECORDS);
+        MappedByteBuffer[] grown = Arrays.copyOf(windows, count);
+        try {
+            for (int i = windows.length; i < count; i++) {
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * WINDOW_BYTES, WINDOW_BYTES);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow transaction journal", e);
+        }
+        windows = grown;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer[] mapped;
+            long from;
+            long upTo;
+            synchronized (this) {
+                while (durable == written && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (durable == written) {
+                    return;
+                }
+                mapped = windows;
+                from = durable;
+                upTo = written;
+            }
+            force(mapped, from, upTo);
+            synchronized (this) {
+                durable = upTo;
+                notifyAll();
+            }
+        }
+    }
+
+    private synchronized void awaitDurable(long sequence) {
+        boolean interrupted = false;
+        while (durable < sequence) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Forces records [from, upTo), one window at a time.
+    private static void force(MappedByteBuffer[] mapped, long from, long upTo) {
+        while (from < upTo) {
+            long end = Math.min(upTo, (from | (WINDOW_RECORDS - 1)) + 1);
+            mapped[(int) (from >>> WINDOW_SHIFT)].force(offset(from), (int) ((end - from) * RECORD_SIZE));
+            from = end;
+        }
+    }
+
+    private MappedByteBuffer window(long index) {
+        return windows[(int) (index >>> WINDOW_SHIFT)];
+    }
+
+    // Byte offset of the record within its window.
+    private static int offset(long index) {
+        return (int) ((index & (WINDOW_RECORDS - 1)) * RECORD_SIZE);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+            for (MappedByteBuffer window : windows) {
+                window.force();
+            }
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close transaction journal", e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package atm;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Rolling 24-hour withdrawal limit per account, kept as a ring of 24 hourly
+// buckets plus a running total. Checking and reserving is O(1) and does not
+// allocate; the only allocation is the window itself, created once per
+// account and seeded from the transaction journal so limits survive restarts.
+//
+// A window whose buckets have all expired holds nothing the journal would
+// not rebuild, so it is dropped by a sweep that starts once the map has
+// doubled since the last one, on the common pool, as in FraudEngine.
+final class WithdrawalLimiter {
+
+    static final long DAILY_LIMIT = Money.ofRupees(30000);
+
+    private static final int HOURS = 24;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final int MIN_SWEEP_SIZE = 4096;
+
+    private static final class Window {
+        private final long[] buckets = new long[HOURS];
+        private long hour;
+        private long total;
+        // Set by the sweep once the window has left the map.
+        private boolean retired;
+
+        private boolean empty() {
+            for (long bucket : buckets) {
+                if (bucket != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void advance(long nowHour) {
+            if (nowHour <= hour) {
+                return;
+            }
+            if (nowHour - hour >= HOURS) {
+                Arrays.fill(buckets, 0);
+                total = 0;
+            } else {
+                for (long h = hour + 1; h <= nowHour; h++) {
+                    int slot = (int) (h % HOURS);
+                    total -= buckets[slot];
+                    buckets[slot] = 0;
+                }
+            }
+            hour = nowHour;
+        }
+    }
+
+    private final TransactionJournal journal;
+    private final long limit;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile int sweepAt = MIN_SWEEP_SIZE;
+
+    WithdrawalLimiter(TransactionJournal journal, long limit) {
+        this.journal = journal;
+        this.limit = limit;
+    }
+
+    // Each operation retries on a fresh window if the sweep retired the one
+    // it found before it took the lock.
+    boolean tryReserve(String accountNumber, long amount, long nowMillis) {
+        while (true) {
+            Window window = window(accountNumber, nowMillis);
+            synchronized (window) {
+                if (window.retired) {
+                    continue;
+                }
+                window.advance(nowMillis / MILLIS_PER_HOUR);
+                if (window.total + amount > limit) {
+                    return false;
+                }
+                window.buckets[(int) (window.hour % HOURS)] += amount;
+                window.total += amount;
+                return true;
+            }
+        }
+    }
+
+    void release(String accountNumber, long amount, long nowMillis) {
+        while (true) {
+            Window window = window(accountNumber, nowMillis);
+            synchronized (window) {
+                if (window.retired) {
+                    continue;
+                }
+                window.advance(nowMillis / MILLIS_PER_HOUR);
+                int slot = (int) (window.hour % HOURS);
+                long returned = Math.min(amount, window.buckets[slot]);
+                window.buckets[slot] -= returned;
+                window.total -= returned;
+                return;
+            }
+        }
+    }
+
+    long remaining(String accountNumber, long nowMillis) {
+        while (true) {
+            Window window = window(accountNumber, nowMillis);
+            synchronized (window) {
+                if (window.retired) {
+                    continue;
+                }
+                window.advance(nowMillis / MILLIS_PER_HOUR);
+                return Math.max(0, limit - window.total);
+            }
+        }
+    }
+
+    long limit() {
+        return limit;
+    }
+
+    private Window window(String accountNumber, long nowMillis) {
+        Window window = windows.get(accountNumber);
+        if (window == null) {
+            window = windows.computeIfAbsent(accountNumber, key -> seed(key, nowMillis));
+            maybeSweep(nowMillis);
+        }
+        return window;
+    }
+
+    private void maybeSweep(long nowMillis) {
+        if (windows.size() < sweepAt || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        ForkJoinPool.commonPool().execute(() -> {
+            try {
+                sweep(nowMillis);
+                sweepAt = Math.max(MIN_SWEEP_SIZE, windows.size() * 2);
+            } finally {
+                sweeping.set(false);
+            }
+        });
+    }
+
+    // Drops every window with nothing left in its last 24 hours as of
+    // nowMillis; returns how many.
+    int sweep(long nowMillis) {
+        int removed = 0;
+        for (Map.Entry<String, Window> entry : windows.entrySet()) {
+            Window window = entry.getValue();
+            synchronized (window) {
+                window.advance(nowMillis / MILLIS_PER_HOUR);
+                if (window.empty()) {
+                    window.retired = true;
+                    windows.remove(entry.getKey(), window);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private Window seed(String accountNumber, long nowMillis) {
+        Window window = new Window();
+        long nowHour = nowMillis / MILLIS_PER_HOUR;
+        window.hour = nowHour;
+        long since = (nowHour - HOURS + 1) * MILLIS_PER_HOUR;
+        for (TransactionJournal.Entry entry : journal.since(accountNumber, since)) {
+            // A withdrawal reversed during crash recovery was never paid out.
+            long counted = switch (entry.type()) {
+                case DEBIT -> entry.amount();
+                case REVERSAL -> -entry.amount();
+                default -> 0;
+            };
+            window.buckets[(int) ((entry.timestamp() / MILLIS_PER_HOUR) % HOURS)] += counted;
+            window.total += counted;
+        }
+        return window;
+    }
+}
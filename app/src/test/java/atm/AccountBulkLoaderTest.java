@@ -0,0 +1,59 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AccountBulkLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void badRowsAreRejectedByLineAndTheRestLoad() throws Exception {
+        String hash = Fixtures.PIN_HASH;
+        Path csv = dir.resolve("accounts.csv");
+        Files.write(csv, List.of(
+            "account_number,holder_name,balance,pin",
+            "100000001,GOOD ONE,1500.50," + hash,
+            "12AB,LETTERS,100," + hash,
+            "1234567890123456789,TOO LONG,100," + hash,
+            "0100000002,LEADING ZERO,100," + hash,
+            "100000003,,100," + hash,
+            "100000004,NEGATIVE,-5," + hash,
+            "100000005,NOT MONEY,ten," + hash,
+            "100000006,SHORT PIN,100,123",
+            "100000007,BROKEN HASH,100,pbkdf2$50000$abc$def",
+            "100000008,\"TWO, FIELDS\"",
+            "100000009,GOOD TWO,0," + hash));
+
+        try (SqliteAccountRepository repository = SqliteAccountRepository.open(dir.resolve("atm.db").toString())) {
+            AccountBulkLoader.ImportReport report = AccountBulkLoader.importCsv(repository, csv);
+
+            assertEquals(2, report.accepted());
+            assertEquals(2, report.inserted());
+            assertEquals(9, report.rejected());
+            assertEquals(9, report.rejections().size());
+            assertTrue(report.rejections().get(0).startsWith("line 3: "));
+            assertTrue(report.rejections().get(8).startsWith("line 11: "));
+            assertEquals(2, repository.count());
+            assertNotNull(repository.findByNumber("100000001"));
+            assertNull(repository.findByNumber("100000006"));
+        }
+    }
+
+    @Test
+    void plainPinsMustBeFourDigits() {
+        assertNull(AccountBulkLoader.problem(new String[] { "123456789", "NAME", "10", "0042" }));
+        assertNotNull(AccountBulkLoader.problem(new String[] { "123456789", "NAME", "10", "12345" }));
+        assertNotNull(AccountBulkLoader.problem(new String[] { "123456789", "NAME", "10", "12a4" }));
+    }
+}
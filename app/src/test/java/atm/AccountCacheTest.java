@@ -0,0 +1,95 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AccountCacheTest {
+
+    private static final int ACCOUNTS = 400;
+    private static final int THREADS = 16;
+    private static final int WITHDRAWALS = 400;
+
+    @TempDir
+    Path dir;
+
+    // A cache far smaller than the accounts in use evicts constantly, so
+    // withdrawals keep racing the eviction and reload of their account.
+    // No account may pay out more than it held, and whatever was paid must
+    // be missing from the balances.
+    @Test
+    void aTinyCacheNeitherOverdrawsNorCreatesMoney() throws Exception {
+        long opening = Money.ofRupees(500);
+        long amount = Money.ofRupees(100);
+        AccountTable store = Fixtures.memoryStore(ACCOUNTS, opening);
+        try (AtmService service = Fixtures.service(store, TransactionJournal.open(dir.resolve("atm.journal")), dir,
+                Fixtures.noRules(), 16)) {
+            List<BankAccount> accounts = new ArrayList<>();
+            for (int i = 0; i < ACCOUNTS; i++) {
+                accounts.add(store.findByNumber(Fixtures.accountNumber(i)));
+            }
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int first = t;
+                results.add(pool.submit(() -> {
+                    int paid = 0;
+                    start.await();
+                    for (int i = 0; i < WITHDRAWALS; i++) {
+                        if (service.withdraw(accounts.get((first * 31 + i) % ACCOUNTS), amount).ok()) {
+                            paid++;
+                        }
+                    }
+                    return paid;
+                }));
+            }
+            start.countDown();
+            int paid = 0;
+            for (Future<Integer> result : results) {
+                paid += result.get();
+            }
+            pool.shutdown();
+
+            long total = 0;
+            for (BankAccount account : accounts) {
+                long balance = service.balance(account);
+                assertTrue(balance >= 0, "account " + account.getAccountNumber() + " overdrawn");
+                total += balance;
+            }
+            assertTrue(paid <= ACCOUNTS * (opening / amount), paid + " withdrawals paid");
+            assertEquals(ACCOUNTS * opening - paid * amount, total);
+        }
+    }
+
+    // "0100000000" or "+100000000" must not reach the same account as
+    // "100000000", or the cache would hold two live copies of it.
+    @Test
+    void onlyCanonicalAccountNumbersFindAnAccount() throws Exception {
+        AccountTable store = Fixtures.memoryStore(1, Money.ofRupees(500));
+        String number = Fixtures.accountNumber(0);
+        for (String alias : List.of("0" + number, "+" + number, " " + number, "", "abc", "1234567890123456789")) {
+            assertNull(store.findByNumber(alias), alias);
+        }
+        try (AtmService service = Fixtures.service(store, dir)) {
+            BankAccount account = service.authenticate("s", number, Fixtures.PIN).get().account();
+            assertEquals(AtmService.Status.INVALID_CREDENTIALS,
+                service.authenticate("s", "0" + number, Fixtures.PIN).get().status());
+            assertEquals(AtmService.Status.SAME_ACCOUNT,
+                service.transfer(account, number, Money.ofRupees(100)).status());
+            assertEquals(AtmService.Status.UNKNOWN_ACCOUNT,
+                service.transfer(account, "0" + number, Money.ofRupees(100)).status());
+        }
+    }
+}
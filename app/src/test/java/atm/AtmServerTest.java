@@ -0,0 +1,83 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AtmServerTest {
+
+    @TempDir
+    Path dir;
+
+    private TransactionJournal journal;
+    private AtmService service;
+    private AtmServer server;
+    private Socket socket;
+    private BufferedReader in;
+    private PrintWriter out;
+
+    @BeforeEach
+    void start() throws IOException {
+        journal = TransactionJournal.open(dir.resolve("atm.journal"));
+        service = Fixtures.service(Fixtures.memoryStore(4, Money.ofRupees(5000)), journal, dir,
+            Fixtures.defaultRules(), 1024);
+        server = new AtmServer(service, 0);
+        server.start();
+        socket = new Socket("127.0.0.1", server.port());
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        assertTrue(call("LOGIN " + Fixtures.accountNumber(0) + " " + Fixtures.PIN).startsWith("OK"));
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        socket.close();
+        server.close();
+        service.close();
+    }
+
+    private String call(String line) throws IOException {
+        out.println(line);
+        return in.readLine();
+    }
+
+    @Test
+    void onlyUnparseableAmountsAreReportedAsInvalid() throws IOException {
+        assertTrue(call("WITHDRAW 12x").startsWith("ERR INVALID_AMOUNT"));
+        assertTrue(call("DEPOSIT").startsWith("ERR BAD_REQUEST"));
+        assertTrue(call("DEPOSIT 100 not-a-uuid").startsWith("ERR BAD_REQUEST"));
+        assertTrue(call("STATEMENT ten").startsWith("ERR BAD_REQUEST"));
+        assertEquals("OK 100.00 5100.00", call("DEPOSIT 100"));
+    }
+
+    // A failure inside the service is answered, not mistaken for a bad
+    // amount, and the session carries on.
+    @Test
+    void internalFailuresGetAnErrorReplyAndKeepTheSession() throws IOException {
+        journal.close();
+        assertTrue(call("DEPOSIT 100").startsWith("ERR INTERNAL_ERROR"));
+        assertEquals("OK 5000.00", call("BALANCE"));
+    }
+
+    @Test
+    void statementCountIsCappedAtOnePage() throws IOException {
+        BankAccount account = service.authenticate("test", Fixtures.accountNumber(0), Fixtures.PIN).join().account();
+        for (int i = 0; i < AtmService.MAX_STATEMENT_PAGE + 20; i++) {
+            service.deposit(account, Money.ofRupees(10));
+        }
+        String reply = call("STATEMENT 1000000");
+        assertEquals(AtmService.MAX_STATEMENT_PAGE, reply.substring(3).split(";").length);
+    }
+}
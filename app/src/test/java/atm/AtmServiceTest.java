@@ -0,0 +1,72 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AtmServiceTest {
+
+    @TempDir
+    Path dir;
+
+    // A withdrawal that dies between reserving and debiting (here the
+    // journal refuses the write) must hand back the notes and the daily limit.
+    @Test
+    void aFailedWithdrawalReleasesItsNotesAndLimit() {
+        AccountTable store = Fixtures.memoryStore(1, Money.ofRupees(50_000));
+        TransactionJournal journal = TransactionJournal.open(dir.resolve("atm.journal"));
+        CashCassette cassette = CashCassette.parse("2000:10,500:10,200:10,100:10");
+        try (AtmService service = new AtmService(store, journal,
+                new BalanceWriteBehind(store, dir.resolve("atm.wal"), 50),
+                RequestLog.open(dir.resolve("atm.requests"), 100_000), cassette, Fixtures.noRules(), 16)) {
+            BankAccount account = store.findByNumber(Fixtures.accountNumber(0));
+            long notes = cassette.available();
+            long limit = service.remainingDailyLimit(account);
+            journal.close();
+            assertThrows(IllegalStateException.class, () -> service.withdraw(account, Money.ofRupees(5000)));
+            assertEquals(notes, cassette.available());
+            assertEquals(limit, service.remainingDailyLimit(account));
+        }
+    }
+
+    // A balance change the write-ahead log cannot take must not stay applied,
+    // or it would be lost at the next restart while the customer saw it.
+    @Test
+    void aChangeTheWriteAheadLogRefusesLeavesBalancesAlone() {
+        long opening = Money.ofRupees(50_000);
+        AccountTable store = Fixtures.memoryStore(2, opening);
+        BalanceWriteBehind writeBehind = new BalanceWriteBehind(store, dir.resolve("atm.wal"), 50);
+        try (AtmService service = new AtmService(store, TransactionJournal.open(dir.resolve("atm.journal")), writeBehind,
+                RequestLog.open(dir.resolve("atm.requests"), 100_000),
+                CashCassette.parse("2000:10,500:10,200:10,100:10"), Fixtures.noRules(), 16)) {
+            BankAccount from = store.findByNumber(Fixtures.accountNumber(0));
+            String to = Fixtures.accountNumber(1);
+            writeBehind.close();
+            assertThrows(UncheckedIOException.class, () -> service.withdraw(from, Money.ofRupees(5000)));
+            assertThrows(UncheckedIOException.class, () -> service.deposit(from, Money.ofRupees(5000)));
+            assertThrows(UncheckedIOException.class, () -> service.transfer(from, to, Money.ofRupees(5000)));
+            assertEquals(opening, service.balance(from));
+            assertEquals(opening, service.balance(store.findByNumber(to)));
+        }
+    }
+
+    // Once the wrong-PIN limit is reached, the change-PIN form stops
+    // checking guesses, even the right one, just as the login screen does.
+    @Test
+    void changePinIsLockedOutAfterTooManyWrongPins() {
+        AccountTable store = Fixtures.memoryStore(1, Money.ofRupees(500));
+        try (AtmService service = Fixtures.service(store, dir)) {
+            BankAccount account = store.findByNumber(Fixtures.accountNumber(0));
+            for (int i = 0; i < LoginGuard.MAX_FAILED_ATTEMPTS; i++) {
+                assertEquals(AtmService.Status.WRONG_PIN, service.changePin("s", account, "0000", "4321", "4321").status());
+            }
+            assertEquals(AtmService.Status.LOCKED_OUT,
+                service.changePin("s", account, Fixtures.PIN, "4321", "4321").status());
+        }
+    }
+}
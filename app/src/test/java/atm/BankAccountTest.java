@@ -0,0 +1,82 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class BankAccountTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 50_000;
+
+    // Every thread mixes deposits and withdrawals on one account that keeps
+    // running close to empty, so most withdrawals race the zero check.
+    // Whatever succeeded must add up exactly to the final balance.
+    @Test
+    void concurrentDebitsAndCreditsLoseNothingAndNeverOverdraw() throws Exception {
+        long opening = Money.ofRupees(1000);
+        BankAccount account = new BankAccount("123456789", "TEST", opening, PinHasher.hash("1234"));
+        AtomicBoolean negativeSeen = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int seed = t;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                long deposited = 0;
+                long withdrawn = 0;
+                start.await();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    long amount = Money.ofRupees(1 + random.nextInt(500));
+                    if (random.nextInt(10) < 4) {
+                        if (account.deposit(amount)) {
+                            deposited += amount;
+                        }
+                    } else if (account.withdraw(amount)) {
+                        withdrawn += amount;
+                    }
+                    if (account.getBalance() < 0) {
+                        negativeSeen.set(true);
+                    }
+                }
+                return new long[] { deposited, withdrawn };
+            }));
+        }
+        start.countDown();
+        long deposited = 0;
+        long withdrawn = 0;
+        for (Future<long[]> result : results) {
+            long[] totals = result.get();
+            deposited += totals[0];
+            withdrawn += totals[1];
+        }
+        pool.shutdown();
+
+        assertFalse(negativeSeen.get(), "balance went negative");
+        assertTrue(withdrawn > 0 && deposited > 0);
+        assertEquals(opening + deposited - withdrawn, account.getBalance());
+    }
+
+    @Test
+    void rejectsNonPositiveAmountsAndOverdrafts() {
+        BankAccount account = new BankAccount("123456789", "TEST", Money.ofRupees(100), PinHasher.hash("1234"));
+        assertFalse(account.withdraw(0));
+        assertFalse(account.withdraw(-1));
+        assertFalse(account.deposit(0));
+        assertFalse(account.withdraw(Money.ofRupees(100) + 1));
+        assertTrue(account.withdraw(Money.ofRupees(100)));
+        assertEquals(0, account.getBalance());
+    }
+}
@@ -0,0 +1,73 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EndOfDayBatchTest {
+
+    // 0.1% a day, and Rs.5 below Rs.1000.
+    private static final EndOfDayBatch.Rates RATES = new EndOfDayBatch.Rates(3650, Money.ofRupees(1000), Money.ofRupees(5));
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void postingsAreWrittenOncePerPartitionEvenWhenARunIsRepeated() throws Exception {
+        long opening = Money.ofRupees(500);
+        AccountTable store = Fixtures.memoryStore(3, opening);
+        EndOfDayBatch batch = new EndOfDayBatch(store, dir, RATES, ForkJoinPool.commonPool());
+        batch.run(DAY);
+        batch.run(DAY);
+
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir.resolve(EndOfDayBatch.batchId(DAY)))) {
+            for (Path file : files.sorted().toList()) {
+                List<String> rows = Files.readAllLines(file);
+                assertEquals("account_number,type,amount,balance_after", rows.get(0));
+                lines.addAll(rows.subList(1, rows.size()));
+            }
+        }
+        String account = Fixtures.accountNumber(0);
+        assertEquals(6, lines.size());
+        assertTrue(lines.contains(account + ",INTEREST,0.50,500.50"));
+        assertTrue(lines.contains(account + ",FEE,5.00,495.50"));
+        assertEquals(opening + opening / 1000 - Money.ofRupees(5), store.findByNumber(account).getBalance());
+    }
+
+    // The previous run wrote part of a partition's file and stopped before
+    // the commit; the rerun replaces it with the whole partition.
+    @Test
+    void aResumedRunRewritesAnUncommittedPartition() throws Exception {
+        AccountTable store = Fixtures.memoryStore(1, Money.ofRupees(500));
+        Path file = PostingLog.open(dir, EndOfDayBatch.batchId(DAY)).file(0);
+        Files.writeString(file, "account_number,type,amount,balance_after\n" + Fixtures.accountNumber(0) + ",INTER");
+
+        new EndOfDayBatch(store, dir, RATES, ForkJoinPool.commonPool()).run(DAY);
+
+        assertEquals(List.of("account_number,type,amount,balance_after",
+            Fixtures.accountNumber(0) + ",INTEREST,0.50,500.50",
+            Fixtures.accountNumber(0) + ",FEE,5.00,495.50"), Files.readAllLines(file));
+    }
+
+    @Test
+    void theStoreLockAdmitsOneHolderAtATime() {
+        Path path = StoreLock.forStore(dir.resolve("atm.db").toString());
+        StoreLock held = StoreLock.acquire(path);
+        assertThrows(IllegalStateException.class, () -> StoreLock.acquire(path));
+        held.close();
+        StoreLock.acquire(path).close();
+    }
+}
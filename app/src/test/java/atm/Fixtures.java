@@ -0,0 +1,50 @@
+package atm;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// Shared setup for the tests: an in-memory account store whose accounts all
+// share one precomputed PIN hash, and a service whose journal and logs live
+// in a test's temporary directory.
+final class Fixtures {
+
+    static final String PIN = "1234";
+    static final String PIN_HASH = PinHasher.hash(PIN);
+
+    private Fixtures() {
+    }
+
+    static String accountNumber(int i) {
+        return String.valueOf(100_000_000L + i);
+    }
+
+    static AccountTable memoryStore(int accounts, long balance) {
+        AccountTable table = new AccountTable(accounts);
+        for (int i = 0; i < accounts; i++) {
+            table.insertIfAbsent(new BankAccount(accountNumber(i), "HOLDER " + i, balance, PIN_HASH));
+        }
+        return table;
+    }
+
+    // The default fraud rules with a day's idle time, as in production.
+    static FraudEngine defaultRules() {
+        return new FraudEngine(FraudRule.fromSystemProperties(), 86_400_000L);
+    }
+
+    // For tests that withdraw far faster than any customer could.
+    static FraudEngine noRules() {
+        return new FraudEngine(List.of(), 0);
+    }
+
+    static AtmService service(AccountRepository repository, TransactionJournal journal, Path dir,
+                              FraudEngine fraudEngine, int cacheCapacity) {
+        BalanceWriteBehind writeBehind = new BalanceWriteBehind(repository, dir.resolve("atm.wal"), 50);
+        RequestLog requestLog = RequestLog.open(dir.resolve("atm.requests"), 100_000);
+        return new AtmService(repository, journal, writeBehind, requestLog,
+            CashCassette.parse("2000:1000,500:2000,200:2000,100:60000"), fraudEngine, cacheCapacity);
+    }
+
+    static AtmService service(AccountRepository repository, Path dir) {
+        return service(repository, TransactionJournal.open(dir.resolve("atm.journal")), dir, defaultRules(), 1024);
+    }
+}
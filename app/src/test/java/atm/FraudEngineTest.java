@@ -0,0 +1,60 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class FraudEngineTest {
+
+    private static final String ACCOUNT = Fixtures.accountNumber(0);
+    private static final long NOW = 1_800_000_000_000L;
+
+    private static FraudEngine velocity(int maxWithdrawals) {
+        return new FraudEngine(List.of(new FraudRule.Velocity(maxWithdrawals, 60_000)), 0);
+    }
+
+    @Test
+    void refusedWithdrawalsDoNotCountTowardVelocity() {
+        FraudEngine engine = velocity(2);
+        for (int i = 0; i < 10; i++) {
+            assertNull(engine.admit(ACCOUNT, Money.ofRupees(500), NOW + i));
+            engine.settle(ACCOUNT, Money.ofRupees(500), NOW + i, false);
+        }
+        assertNull(engine.admit(ACCOUNT, Money.ofRupees(500), NOW + 10));
+        engine.settle(ACCOUNT, Money.ofRupees(500), NOW + 10, true);
+        assertNull(engine.admit(ACCOUNT, Money.ofRupees(500), NOW + 11));
+        engine.settle(ACCOUNT, Money.ofRupees(500), NOW + 11, true);
+        assertEquals("velocity", engine.admit(ACCOUNT, Money.ofRupees(500), NOW + 12));
+    }
+
+    @Test
+    void withdrawalsInFlightCountTowardVelocity() {
+        FraudEngine engine = velocity(2);
+        assertNull(engine.admit(ACCOUNT, Money.ofRupees(500), NOW));
+        assertNull(engine.admit(ACCOUNT, Money.ofRupees(500), NOW));
+        assertEquals("velocity", engine.admit(ACCOUNT, Money.ofRupees(500), NOW));
+        engine.settle(ACCOUNT, Money.ofRupees(500), NOW, false);
+        assertNull(engine.admit(ACCOUNT, Money.ofRupees(500), NOW));
+    }
+
+    @Test
+    void sweepDropsIdleAccountsButNotOnesInFlight() {
+        FraudEngine engine = velocity(5);
+        String busy = Fixtures.accountNumber(1);
+        engine.admit(ACCOUNT, Money.ofRupees(500), NOW);
+        engine.settle(ACCOUNT, Money.ofRupees(500), NOW, true);
+        engine.admit(busy, Money.ofRupees(500), NOW);
+        engine.recordPinFailure(Fixtures.accountNumber(2), NOW + 120_000);
+
+        assertEquals(1, engine.sweep(NOW + 60_000));
+        assertEquals(2, engine.trackedAccounts());
+        assertEquals(1, engine.evicted());
+
+        engine.settle(busy, Money.ofRupees(500), NOW, true);
+        assertEquals(1, engine.sweep(NOW + 60_000));
+        assertEquals(1, engine.trackedAccounts());
+    }
+}
@@ -0,0 +1,82 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RequestLogTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20;
+    private static final int COMPACTIONS = 10;
+
+    @TempDir
+    Path dir;
+
+    // Requests keep finishing while the log is compacted, and the log is
+    // closed right after the last compaction, so nothing later repairs what
+    // it wrote. A request that ended must never come back in flight.
+    @Test
+    void compactionNeverLosesAnEnd() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int round = 0; round < ROUNDS; round++) {
+            Path path = dir.resolve("atm.requests." + round);
+            try (RequestLog log = RequestLog.open(path, 1_000)) {
+                AtomicBoolean running = new AtomicBoolean(true);
+                List<Future<?>> clients = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    clients.add(pool.submit(() -> {
+                        while (running.get()) {
+                            UUID id = UUID.randomUUID();
+                            log.begin(id, RequestLog.Action.DEPOSIT, Fixtures.accountNumber(0), 100);
+                            log.end(id, RequestLog.Action.DEPOSIT, AtmService.Status.OK, 100, 100);
+                        }
+                    }));
+                }
+                for (int i = 0; i < COMPACTIONS; i++) {
+                    log.compact();
+                }
+                running.set(false);
+                for (Future<?> client : clients) {
+                    client.get();
+                }
+            }
+            try (RequestLog reopened = RequestLog.open(path, 1_000)) {
+                assertEquals(List.of(), reopened.inFlight(), "round " + round);
+            }
+        }
+        pool.shutdown();
+    }
+
+    // Every status is written by its code and must read back as itself.
+    @Test
+    void everyStatusSurvivesAReopen() {
+        Path path = dir.resolve("atm.requests");
+        List<UUID> ids = new ArrayList<>();
+        try (RequestLog log = RequestLog.open(path, 1_000)) {
+            for (AtmService.Status status : AtmService.Status.values()) {
+                UUID id = UUID.randomUUID();
+                ids.add(id);
+                log.begin(id, RequestLog.Action.WITHDRAW, Fixtures.accountNumber(0), 100);
+                log.end(id, RequestLog.Action.WITHDRAW, status, 100, 100);
+            }
+        }
+        try (RequestLog reopened = RequestLog.open(path, 1_000)) {
+            for (AtmService.Status status : AtmService.Status.values()) {
+                RequestLog.Outcome outcome = reopened.completed(ids.get(status.ordinal()));
+                assertEquals(status, outcome.status());
+                assertEquals(RequestLog.Action.WITHDRAW, outcome.action());
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Runs without a display: nothing here opens a window, only the EDT.
+class TerminalWorkerTest {
+
+    private static final long SLOW_MILLIS = 1500;
+    private static final long RESPONSIVE_MILLIS = 250;
+
+    @TempDir
+    Path dir;
+
+    // Every account lookup takes SLOW_MILLIS, like a store on a stalled disk.
+    private static AccountRepository slow(AccountRepository store) {
+        return (AccountRepository) Proxy.newProxyInstance(AccountRepository.class.getClassLoader(),
+            new Class<?>[] { AccountRepository.class }, (proxy, method, args) -> {
+                if (method.getName().equals("findByNumber")) {
+                    Thread.sleep(SLOW_MILLIS);
+                }
+                try {
+                    return method.invoke(store, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    // Posts empty events until done completes and returns the longest the
+    // EDT took to run one.
+    private static long longestEdtStall(CompletableFuture<?> done) throws Exception {
+        long longest = 0;
+        while (!done.isDone()) {
+            long start = System.nanoTime();
+            SwingUtilities.invokeAndWait(() -> { });
+            longest = Math.max(longest, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            Thread.sleep(10);
+        }
+        return longest;
+    }
+
+    @Test
+    void slowLoginAndAccountOperationsLeaveTheEdtResponsive() throws Exception {
+        AccountTable store = Fixtures.memoryStore(2, Money.ofRupees(5000));
+        try (AtmService service = Fixtures.service(slow(store), dir)) {
+            CompletableFuture<AtmService.Login> login = new CompletableFuture<>();
+            SwingUtilities.invokeLater(() -> service.authenticate("terminal", Fixtures.accountNumber(0), Fixtures.PIN)
+                .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> login.complete(result))));
+            long stall = longestEdtStall(login);
+            assertTrue(stall < RESPONSIVE_MILLIS, "EDT stalled for " + stall + " ms during login");
+            BankAccount account = login.get().account();
+
+            TerminalWorker worker = new TerminalWorker();
+            CompletableFuture<Long> transferred = new CompletableFuture<>();
+            AtomicBoolean reportedOnEdt = new AtomicBoolean();
+            SwingUtilities.invokeLater(() -> worker.submit(
+                () -> service.transfer(account, Fixtures.accountNumber(1), Money.ofRupees(1000)).ok()
+                    ? service.balance(account) : -1L,
+                (balance, error) -> {
+                    reportedOnEdt.set(SwingUtilities.isEventDispatchThread());
+                    transferred.complete(balance);
+                }));
+            stall = longestEdtStall(transferred);
+            assertTrue(stall < RESPONSIVE_MILLIS, "EDT stalled for " + stall + " ms during a transfer");
+            assertEquals(Money.ofRupees(4000), transferred.get());
+            assertTrue(reportedOnEdt.get());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TransactionJournalTest {
+
+    // More than one mapped window (2^18 records).
+    private static final int RECORDS = 300_000;
+    private static final int ACCOUNTS = 100;
+    private static final int THREADS = 32;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendsPastTheFirstWindowAndRecoversThem() throws Exception {
+        Path path = dir.resolve("atm.journal");
+        try (TransactionJournal journal = TransactionJournal.open(path)) {
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> appenders = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                appenders.add(pool.submit(() -> {
+                    for (int i = thread; i < RECORDS; i += THREADS) {
+                        journal.append(String.valueOf(100_000_000L + i % ACCOUNTS), TransactionJournal.Type.CREDIT, 100, i);
+                    }
+                }));
+            }
+            for (Future<?> appender : appenders) {
+                appender.get();
+            }
+            pool.shutdown();
+            assertEquals(RECORDS, journal.size());
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(path)) {
+            assertEquals(RECORDS, journal.size());
+            String account = "100000007";
+            long entries = 0;
+            int before = TransactionJournal.NEWEST;
+            do {
+                TransactionJournal.Page page = journal.page(account, TransactionJournal.Filter.ALL, before, 500);
+                entries += page.entries().size();
+                before = page.next();
+            } while (before > 0);
+            assertEquals(RECORDS / ACCOUNTS, entries);
+
+            journal.append(account, TransactionJournal.Type.DEBIT, 300, 42);
+            TransactionJournal.Entry newest = journal.recent(account, 1).get(0);
+            assertEquals(TransactionJournal.Type.DEBIT, newest.type());
+            assertEquals(42, newest.balanceAfter());
+        }
+    }
+
+    @Test
+    void prepareRejectsWhatAppendCouldNotStore() {
+        TransactionJournal journal = TransactionJournal.open(dir.resolve("atm.journal"));
+        assertThrows(IllegalArgumentException.class, () -> journal.prepare("12AB"));
+        journal.close();
+        assertThrows(IllegalStateException.class, () -> journal.prepare("123456789"));
+    }
+
+    // One PIN change among thousands of credits: the first pages come back
+    // short after MAX_SKIPPED credits each, and paging on still finds it.
+    @Test
+    void aRareTypeFilterIsReadInBoundedPages() {
+        String account = "100000001";
+        int credits = 3 * TransactionJournal.MAX_SKIPPED + 10;
+        try (TransactionJournal journal = TransactionJournal.open(dir.resolve("atm.journal"))) {
+            journal.append(account, TransactionJournal.Type.PIN_CHANGE, 0, 0);
+            for (int i = 0; i < credits; i++) {
+                journal.append(account, TransactionJournal.Type.CREDIT, 100, i);
+            }
+            TransactionJournal.Filter pinChanges = new TransactionJournal.Filter(0, Long.MAX_VALUE,
+                EnumSet.of(TransactionJournal.Type.PIN_CHANGE));
+            List<TransactionJournal.Entry> found = new ArrayList<>();
+            int pages = 0;
+            int before = TransactionJournal.NEWEST;
+            do {
+                TransactionJournal.Page page = journal.page(account, pinChanges, before, 10);
+                found.addAll(page.entries());
+                before = page.next();
+                pages++;
+            } while (before > 0);
+            assertEquals(1, found.size());
+            assertEquals(4, pages);
+        }
+    }
+
+    // Pages are read while other threads append to the same account; each
+    // must be a run of consecutive entries, newest first.
+    @Test
+    void pagesStayConsistentWhileAppendsRun() throws Exception {
+        String account = "100000002";
+        try (TransactionJournal journal = TransactionJournal.open(dir.resolve("atm.journal"))) {
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            Future<?> appender = pool.submit(() -> {
+                for (int i = 1; i <= 20_000; i++) {
+                    journal.append(account, TransactionJournal.Type.CREDIT, 100, i);
+                }
+            });
+            while (!appender.isDone()) {
+                List<TransactionJournal.Entry> entries = journal.recent(account, 50);
+                for (int i = 1; i < entries.size(); i++) {
+                    assertEquals(entries.get(i - 1).balanceAfter() - 1, entries.get(i).balanceAfter());
+                }
+            }
+            appender.get();
+            pool.shutdown();
+            assertEquals(20_000, journal.recent(account, 1).get(0).balanceAfter());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package atm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WithdrawalLimiterTest {
+
+    private static final long NOW = 1_800_000_000_000L;
+    private static final long DAY = 86_400_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sweepDropsOnlyWindowsWhoseDayHasPassed() {
+        String busy = Fixtures.accountNumber(0);
+        String released = Fixtures.accountNumber(1);
+        try (TransactionJournal journal = TransactionJournal.open(dir.resolve("atm.journal"))) {
+            WithdrawalLimiter limiter = new WithdrawalLimiter(journal, Money.ofRupees(1000));
+            assertTrue(limiter.tryReserve(busy, Money.ofRupees(1000), NOW));
+            assertTrue(limiter.tryReserve(released, Money.ofRupees(1000), NOW));
+            limiter.release(released, Money.ofRupees(1000), NOW);
+
+            assertEquals(1, limiter.sweep(NOW));
+            assertFalse(limiter.tryReserve(busy, Money.ofRupees(100), NOW + DAY - 1));
+            assertEquals(0, limiter.sweep(NOW + DAY - 1));
+            assertEquals(1, limiter.sweep(NOW + DAY));
+            assertTrue(limiter.tryReserve(busy, Money.ofRupees(1000), NOW + DAY));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package atm;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Random lookups and balance updates in the primitive-array AccountTable
+// against the HashMap<String, BankAccount> it replaces. Each trial builds
+// only one of the two and prints how much the heap grew, so the footprints
+// compare like for like. Every HashMap account gets its own PIN hash string,
+// as accounts loaded from a database would.
+//
+// The default heap covers 1M and 10M of both (about 140 against 290 bytes
+// an account). 50M needs a bigger heap and a machine to match, e.g.
+//   java -jar benchmarks.jar AccountTableBenchmark -p accounts=50000000 -p store=table -jvmArgsAppend -Xmx10g
+//   java -jar benchmarks.jar AccountTableBenchmark -p accounts=50000000 -p store=hashmap -jvmArgsAppend -Xmx20g
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class AccountTableBenchmark {
+
+    private static final int SAMPLES = 1 << 16;
+
+    @Param({"1000000", "10000000", "50000000"})
+    public int accounts;
+
+    @Param({"table", "hashmap"})
+    public String store;
+
+    private AccountTable table;
+    private Map<String, BankAccount> map;
+    private final String[] samples = new String[SAMPLES];
+
+    @Setup
+    public void setUp() {
+        long before = usedHeap();
+        if ("table".equals(store)) {
+            table = new AccountTable(accounts);
+            for (int i = 0; i < accounts; i++) {
+                table.insertIfAbsent(Fixtures.account(i));
+            }
+        } else {
+            map = new HashMap<>(accounts * 2);
+            for (int i = 0; i < accounts; i++) {
+                map.put(Fixtures.accountNumber(i), new BankAccount(Fixtures.accountNumber(i), "HOLDER " + i,
+                    Fixtures.OPENING_BALANCE, new String(Fixtures.PIN_HASH)));
+            }
+        }
+        long footprint = usedHeap() - before;
+        System.out.printf("%n%s heap footprint: %d MB for %d accounts (%d bytes/account)%n",
+            store, footprint >> 20, accounts, footprint / accounts);
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = Fixtures.accountNumber(ThreadLocalRandom.current().nextInt(accounts));
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private String randomAccount() {
+        return samples[ThreadLocalRandom.current().nextInt(SAMPLES)];
+    }
+
+    @Benchmark
+    public long balance() {
+        String account = randomAccount();
+        return table != null ? table.findByNumber(account).getBalance() : map.get(account).getBalance();
+    }
+
+    @Benchmark
+    public long update() {
+        String account = randomAccount();
+        if (table != null) {
+            table.add(account, 100);
+            table.add(account, -100);
+            return 0;
+        }
+        BankAccount cached = map.get(account);
+        cached.deposit(100);
+        return cached.withdraw(100) ? 1 : 0;
+    }
+}
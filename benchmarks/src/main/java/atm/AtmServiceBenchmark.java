@@ -0,0 +1,104 @@
+package atm;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The operations behind the terminal's buttons, on the in-memory store.
+// Rejected withdrawals measure the validation rules alone; deposits include
+// the durable journal append and the write-ahead log.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AtmServiceBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+
+    private Path dir;
+    private AtmService service;
+    private BankAccount account;
+
+    @Setup
+    public void setUp() throws Exception {
+        dir = Fixtures.tempDir();
+        service = Fixtures.service(Fixtures.memoryStore(ACCOUNTS), dir);
+        account = service.authenticate("bench", Fixtures.accountNumber(0), Fixtures.PIN).get().account();
+        for (int i = 0; i < 100; i++) {
+            service.deposit(account, Money.ofRupees(100));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public long balance() {
+        return service.balance(account);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long balanceContended() {
+        return service.balance(account);
+    }
+
+    @Benchmark
+    public AtmService.Result withdrawBelowMinimum() {
+        return service.withdraw(account, Money.ofRupees(50));
+    }
+
+    @Benchmark
+    public AtmService.Result withdrawNotAMultiple() {
+        return service.withdraw(account, Money.ofRupees(150));
+    }
+
+    @Benchmark
+    public AtmService.Result depositAboveMaximum() {
+        return service.deposit(account, Money.ofRupees(60000));
+    }
+
+    @Benchmark
+    public AtmService.Result deposit() {
+        return service.deposit(account, Money.ofRupees(100));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AtmService.Result depositContended() {
+        return service.deposit(account, Money.ofRupees(100));
+    }
+
+    @Benchmark
+    public List<TransactionJournal.Entry> statement() {
+        return service.statement(account, 10);
+    }
+
+    @Benchmark
+    public long remainingDailyLimit() {
+        return service.remainingDailyLimit(account);
+    }
+
+    @Benchmark
+    public String maskAccount() {
+        return ATMSystemMain.maskAccount(account.getAccountNumber());
+    }
+}
@@ -0,0 +1,51 @@
+package atm;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// CAS cost of BankAccount debits and credits, alone and with every thread
+// hammering the same account.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankAccountBenchmark {
+
+    private BankAccount account;
+
+    @Setup
+    public void setUp() {
+        account = Fixtures.account(0);
+    }
+
+    @Benchmark
+    public boolean depositThenWithdraw() {
+        account.deposit(100);
+        return account.withdraw(100);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean depositThenWithdrawContended() {
+        account.deposit(100);
+        return account.withdraw(100);
+    }
+
+    @Benchmark
+    public boolean hasSufficientBalance() {
+        return account.hasSufficientBalance(Money.ofRupees(500));
+    }
+}
@@ -0,0 +1,88 @@
+package atm;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Note-mix planning and reservation over a typical ATM withdrawal mix:
+// mostly round amounts, some that need the smaller notes. 'sparse' is a
+// nearly empty machine where the planner has to search. Reserve-and-release
+// keeps the inventory steady, so the threaded run measures CAS contention
+// on the shared inventory word rather than running out of notes.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CashCassetteBenchmark {
+
+    private static final long[] RUPEES = {500, 1000, 1500, 2000, 2500, 3000, 4000, 5000, 7000, 10000, 600, 2300, 4700, 8900};
+    private static final int[] WEIGHTS = {14, 18, 6, 16, 5, 8, 6, 10, 3, 6, 2, 2, 2, 2};
+
+    private final long[] amounts = new long[1024];
+    private CashCassette cassette;
+    private long full;
+    private long sparse;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int total = 0;
+        for (int weight : WEIGHTS) {
+            total += weight;
+        }
+        for (int i = 0; i < amounts.length; i++) {
+            int roll = random.nextInt(total);
+            int pick = 0;
+            while (roll >= WEIGHTS[pick]) {
+                roll -= WEIGHTS[pick++];
+            }
+            amounts[i] = Money.ofRupees(RUPEES[pick]);
+        }
+        cassette = CashCassette.parse(CashCassette.DEFAULT_LOAD);
+        full = cassette.available();
+        sparse = CashCassette.pack(3, 1, 40, 0);
+    }
+
+    private long randomAmount() {
+        return amounts[ThreadLocalRandom.current().nextInt(amounts.length)];
+    }
+
+    @Benchmark
+    public long planFull() {
+        return CashCassette.plan(full, randomAmount() / Money.ofRupees(1));
+    }
+
+    @Benchmark
+    public long planSparse() {
+        return CashCassette.plan(sparse, randomAmount() / Money.ofRupees(1));
+    }
+
+    @Benchmark
+    public long reserveAndRelease() {
+        long notes = cassette.reserve(randomAmount());
+        cassette.release(notes);
+        return notes;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long reserveAndReleaseConcurrent() {
+        long notes = cassette.reserve(randomAmount());
+        cassette.release(notes);
+        return notes;
+    }
+}
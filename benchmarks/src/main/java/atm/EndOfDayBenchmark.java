@@ -0,0 +1,55 @@
+package atm;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One full end-of-day run over a million in-memory accounts on the common
+// fork-join pool, writing every posting to the day's PostingLog. Every
+// invocation is a new business date, so no partition is skipped as already
+// done.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class EndOfDayBenchmark {
+
+    private static final int ACCOUNTS = 1_000_000;
+
+    private Path dir;
+    private EndOfDayBatch batch;
+    private LocalDate businessDate = LocalDate.of(2024, 1, 1);
+
+    @Setup
+    public void setUp() {
+        dir = Fixtures.tempDir();
+        batch = new EndOfDayBatch(Fixtures.memoryStore(ACCOUNTS), dir.resolve("postings"), EndOfDayBatch.Rates.fromSystemProperties(),
+            ForkJoinPool.commonPool());
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public EndOfDayBatch.Report run() {
+        businessDate = businessDate.plusDays(1);
+        return batch.run(businessDate);
+    }
+}
@@ -0,0 +1,78 @@
+package atm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Shared setup for the benchmarks: throwaway directories for journals and
+// databases, and accounts that all share one precomputed PIN hash so large
+// fixtures do not spend minutes in PBKDF2.
+final class Fixtures {
+
+    static final String PIN = "1234";
+    static final String PIN_HASH = PinHasher.hash(PIN);
+    static final long OPENING_BALANCE = Money.ofRupees(1_000_000_000L);
+    private static final int INSERT_CHUNK = 50_000;
+
+    private Fixtures() {
+    }
+
+    static String accountNumber(int i) {
+        return String.valueOf(100_000_000L + i);
+    }
+
+    static BankAccount account(int i) {
+        return new BankAccount(accountNumber(i), "HOLDER " + i, OPENING_BALANCE, PIN_HASH);
+    }
+
+    static AccountTable memoryStore(int accounts) {
+        AccountTable table = new AccountTable(accounts);
+        for (int i = 0; i < accounts; i++) {
+            table.insertIfAbsent(account(i));
+        }
+        return table;
+    }
+
+    // Inserted in chunks so ten million accounts never sit in one list.
+    static SqliteAccountRepository sqliteStore(Path dir, int accounts) {
+        SqliteAccountRepository sqlite = SqliteAccountRepository.open(dir.resolve("atm.db").toString());
+        List<BankAccount> batch = new ArrayList<>(INSERT_CHUNK);
+        for (int i = 0; i < accounts; i++) {
+            batch.add(account(i));
+            if (batch.size() == INSERT_CHUNK || i == accounts - 1) {
+                sqlite.insertBatch(batch);
+                batch.clear();
+            }
+        }
+        return sqlite;
+    }
+
+    static AtmService service(AccountRepository repository, Path dir) {
+        TransactionJournal journal = TransactionJournal.open(dir.resolve("atm.journal"));
+        BalanceWriteBehind writeBehind = new BalanceWriteBehind(repository, dir.resolve("atm.wal"), 200);
+        RequestLog requestLog = RequestLog.open(dir.resolve("atm.requests"), 100_000);
+        return new AtmService(repository, journal, writeBehind, requestLog,
+            CashCassette.parse(CashCassette.DEFAULT_LOAD), FraudEngine.fromSystemProperties(), 100_000);
+    }
+
+    static Path tempDir() {
+        try {
+            return Files.createTempDirectory("atm-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void delete(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
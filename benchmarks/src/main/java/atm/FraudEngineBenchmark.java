@@ -0,0 +1,75 @@
+package atm;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One rule evaluation with all three default rules, over accounts whose
+// activity is already populated, settled as paid when admitted. The clock
+// advances a second per call so the velocity window keeps sliding instead
+// of declining everything.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FraudEngineBenchmark {
+
+    @Param({"1000", "100000"})
+    public int accounts;
+
+    private String[] accountNumbers;
+    private FraudEngine engine;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        accountNumbers = new String[accounts];
+        engine = FraudEngine.fromSystemProperties();
+        now = System.currentTimeMillis();
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers[i] = String.valueOf(100_000_000L + i);
+            for (int w = 0; w < 4; w++) {
+                engine.admit(accountNumbers[i], Money.ofRupees(1000), now - 3_600_000L + w);
+                engine.settle(accountNumbers[i], Money.ofRupees(1000), now - 3_600_000L + w, true);
+            }
+        }
+    }
+
+    private String randomAccount() {
+        return accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)];
+    }
+
+    private String admitAndSettle(long nowMillis) {
+        String account = randomAccount();
+        String declinedBy = engine.admit(account, Money.ofRupees(1000), nowMillis);
+        if (declinedBy == null) {
+            engine.settle(account, Money.ofRupees(1000), nowMillis, true);
+        }
+        return declinedBy;
+    }
+
+    @Benchmark
+    public String admit() {
+        return admitAndSettle(now += 1000);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String admitConcurrent() {
+        return admitAndSettle(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,117 @@
+package atm;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Durable appends per second (group commit shows up as the gap between one
+// and four threads) and statement reads against a journal that already
+// holds millions of entries, spread over many mapped windows. Each account
+// has thousands of entries, so the older and filtered pages exercise the
+// binary search deep inside long histories.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+    private static final int PRELOAD_THREADS = 64;
+
+    @Param({"4000000"})
+    public int preloaded;
+
+    private Path dir;
+    private TransactionJournal journal;
+    private long firstMillis;
+    private long lastMillis;
+
+    // Many appenders at once so group commit keeps the preload from costing
+    // one sync per record.
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Fixtures.tempDir();
+        journal = TransactionJournal.open(dir.resolve("atm.journal"));
+        firstMillis = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(PRELOAD_THREADS);
+        List<Future<?>> loaders = new ArrayList<>();
+        for (int t = 0; t < PRELOAD_THREADS; t++) {
+            int thread = t;
+            loaders.add(pool.submit(() -> {
+                for (int i = thread; i < preloaded; i += PRELOAD_THREADS) {
+                    TransactionJournal.Type type = i % 7 == 0 ? TransactionJournal.Type.CREDIT : TransactionJournal.Type.DEBIT;
+                    journal.append(Fixtures.accountNumber(i % ACCOUNTS), type, 100, i);
+                }
+            }));
+        }
+        for (Future<?> loader : loaders) {
+            loader.get();
+        }
+        pool.shutdown();
+        lastMillis = System.currentTimeMillis();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        journal.close();
+        Fixtures.delete(dir);
+    }
+
+    private static String randomAccount() {
+        return Fixtures.accountNumber(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append(randomAccount(), TransactionJournal.Type.DEBIT, 100, 0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendConcurrent() {
+        journal.append(randomAccount(), TransactionJournal.Type.DEBIT, 100, 0);
+    }
+
+    @Benchmark
+    public List<TransactionJournal.Entry> recentTen() {
+        return journal.recent(randomAccount(), 10);
+    }
+
+    // A page from the middle of an account's history.
+    @Benchmark
+    public TransactionJournal.Page olderPage() {
+        return journal.page(randomAccount(), TransactionJournal.Filter.ALL, preloaded / ACCOUNTS / 2, 20);
+    }
+
+    // Credits only, inside a time window in the middle of the preload.
+    @Benchmark
+    public TransactionJournal.Page filteredPage() {
+        long middle = (firstMillis + lastMillis) / 2;
+        TransactionJournal.Filter credits = new TransactionJournal.Filter(middle - 1000, middle,
+            EnumSet.of(TransactionJournal.Type.CREDIT));
+        return journal.page(randomAccount(), credits, TransactionJournal.NEWEST, 20);
+    }
+}
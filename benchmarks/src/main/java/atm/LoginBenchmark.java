@@ -0,0 +1,67 @@
+package atm;
+
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Logins per second. A fresh session pays the full PBKDF2 cost; a repeated
+// login on the same session is answered from the verifier's cache. The
+// hash cost follows -Datm.pin.iterations, e.g.
+//   java -jar benchmarks.jar LoginBenchmark -jvmArgsAppend -Datm.pin.iterations=100000
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+
+    private Path dir;
+    private AtmService service;
+
+    @Setup
+    public void setUp() {
+        dir = Fixtures.tempDir();
+        service = Fixtures.service(Fixtures.memoryStore(16), dir);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public AtmService.Login newSession() throws Exception {
+        String session = UUID.randomUUID().toString();
+        try {
+            return service.authenticate(session, Fixtures.accountNumber(1), Fixtures.PIN).get();
+        } finally {
+            service.endSession(session);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AtmService.Login newSessionConcurrent() throws Exception {
+        return newSession();
+    }
+
+    @Benchmark
+    public AtmService.Login cachedSession() throws Exception {
+        return service.authenticate("cached", Fixtures.accountNumber(2), Fixtures.PIN).get();
+    }
+}
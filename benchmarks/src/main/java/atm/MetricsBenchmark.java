@@ -0,0 +1,51 @@
+package atm;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// What instrumentation adds to every AtmService call: one outcome increment
+// and one histogram record, alone and with four threads on the same
+// operation.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    private final OperationMetrics metrics = new OperationMetrics();
+
+    private static long latency() {
+        return 1_000 + ThreadLocalRandom.current().nextInt(1_000_000);
+    }
+
+    @Benchmark
+    public void record() {
+        metrics.record(OperationMetrics.Operation.WITHDRAW, AtmService.Status.OK, latency());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        metrics.record(OperationMetrics.Operation.WITHDRAW, AtmService.Status.OK, latency());
+    }
+
+    @Benchmark
+    public String render() {
+        StringBuilder out = new StringBuilder(8192);
+        metrics.writePrometheus(out);
+        return out.toString();
+    }
+}
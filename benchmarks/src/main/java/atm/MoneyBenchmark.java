@@ -0,0 +1,73 @@
+package atm;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Summing a day of transactions as double rupees, long paise and
+// BigDecimal, plus the parse/format round trip used by every dialog.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    private static final int AMOUNTS = 1000;
+
+    private final double[] rupees = new double[AMOUNTS];
+    private final long[] paise = new long[AMOUNTS];
+    private final BigDecimal[] decimals = new BigDecimal[AMOUNTS];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < AMOUNTS; i++) {
+            paise[i] = 10_000L + i * 137L;
+            rupees[i] = paise[i] / 100.0;
+            decimals[i] = BigDecimal.valueOf(paise[i], 2);
+        }
+    }
+
+    @Benchmark
+    public double sumDouble() {
+        double total = 0;
+        for (double amount : rupees) {
+            total += amount;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long sumLongPaise() {
+        long total = 0;
+        for (long amount : paise) {
+            total = Math.addExact(total, amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public String parseAndFormat() {
+        return Money.format(Money.parse("12345.67"));
+    }
+}
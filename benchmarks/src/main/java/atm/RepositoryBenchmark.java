@@ -0,0 +1,78 @@
+package atm;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Per-operation latency of the two AccountRepository implementations,
+// without the cache and write-behind in front of them. Setting up the ten
+// million account SQLite store takes a few minutes.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    @Param({"sqlite", "memory"})
+    public String store;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int accounts;
+
+    private Path dir;
+    private AccountRepository repository;
+    private long generation;
+
+    @Setup
+    public void setUp() {
+        dir = Fixtures.tempDir();
+        repository = "sqlite".equals(store) ? Fixtures.sqliteStore(dir, accounts) : Fixtures.memoryStore(accounts);
+    }
+
+    @TearDown
+    public void tearDown() {
+        repository.close();
+        Fixtures.delete(dir);
+    }
+
+    private String randomAccount() {
+        return Fixtures.accountNumber(ThreadLocalRandom.current().nextInt(accounts));
+    }
+
+    @Benchmark
+    public BankAccount findByNumber() {
+        return repository.findByNumber(randomAccount());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BankAccount findByNumberConcurrent() {
+        return repository.findByNumber(randomAccount());
+    }
+
+    // One write-behind flush of a single account, as a credit and a debit.
+    @Benchmark
+    public long applyBalanceChanges() {
+        String account = randomAccount();
+        repository.applyBalanceChanges(Map.of(account, 100L), ++generation);
+        repository.applyBalanceChanges(Map.of(account, -100L), ++generation);
+        return generation;
+    }
+}
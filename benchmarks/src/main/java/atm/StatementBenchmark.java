@@ -0,0 +1,94 @@
+package atm;
+
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Statement pages against one account with a short and a long history.
+// Each query should cost the same at both sizes: the newest page, a page
+// deep in the history reached by cursor, and a date range in the middle.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementBenchmark {
+
+    private static final String ACCOUNT = Fixtures.accountNumber(0);
+    private static final int PAGE = 20;
+
+    @Param({"1000", "100000"})
+    public int history;
+
+    private Path dir;
+    private TransactionJournal journal;
+    private TransactionJournal.Filter middleRange;
+    private TransactionJournal.Filter debitsOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        dir = Fixtures.tempDir();
+        journal = TransactionJournal.open(dir.resolve("atm.journal"));
+        // Appends block on the journal's group commit, so a few writers fill
+        // it much faster than one.
+        Thread[] writers = new Thread[8];
+        for (int w = 0; w < writers.length; w++) {
+            int writer = w;
+            writers[w] = new Thread(() -> {
+                for (int i = writer; i < history; i += writers.length) {
+                    journal.append(ACCOUNT, i % 2 == 0 ? TransactionJournal.Type.CREDIT : TransactionJournal.Type.DEBIT,
+                        100, i);
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        long middle = journal.page(ACCOUNT, TransactionJournal.Filter.ALL, history / 2, 1).entries().get(0).timestamp();
+        middleRange = new TransactionJournal.Filter(middle - 5, middle, TransactionJournal.Filter.ALL.types());
+        debitsOnly = new TransactionJournal.Filter(0, Long.MAX_VALUE,
+            EnumSet.of(TransactionJournal.Type.DEBIT));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        journal.close();
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public TransactionJournal.Page newestPage() {
+        return journal.page(ACCOUNT, TransactionJournal.Filter.ALL, TransactionJournal.NEWEST, PAGE);
+    }
+
+    @Benchmark
+    public TransactionJournal.Page deepPage() {
+        return journal.page(ACCOUNT, TransactionJournal.Filter.ALL, history / 2, PAGE);
+    }
+
+    @Benchmark
+    public TransactionJournal.Page dateRange() {
+        return journal.page(ACCOUNT, middleRange, TransactionJournal.NEWEST, PAGE);
+    }
+
+    @Benchmark
+    public TransactionJournal.Page typeFilter() {
+        return journal.page(ACCOUNT, debitsOnly, TransactionJournal.NEWEST, PAGE);
+    }
+}
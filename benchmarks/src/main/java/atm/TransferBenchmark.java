@@ -0,0 +1,66 @@
+package atm;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Transfers with four threads, either all between the same two accounts
+// (both locks contended, directions mixed) or spread across many.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class TransferBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+
+    private Path dir;
+    private AtmService service;
+    private BankAccount[] accounts;
+
+    @Setup
+    public void setUp() {
+        dir = Fixtures.tempDir();
+        service = Fixtures.service(Fixtures.memoryStore(ACCOUNTS), dir);
+        accounts = new BankAccount[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = Fixtures.account(i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public AtmService.Result hotPair() {
+        boolean forward = ThreadLocalRandom.current().nextBoolean();
+        return service.transfer(accounts[forward ? 0 : 1], Fixtures.accountNumber(forward ? 1 : 0), 100);
+    }
+
+    @Benchmark
+    public AtmService.Result spread() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        return service.transfer(accounts[from], Fixtures.accountNumber(to), 100);
+    }
+}